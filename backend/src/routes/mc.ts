@@ -17,11 +17,42 @@ const whitelistSchema = z.object({
   name: z.string().min(3).max(16).regex(/^[a-zA-Z0-9_]+$/),
 });
 
+const playerName = z.string().min(3).max(16).regex(/^[a-zA-Z0-9_]+$/);
+
+const whitelistBulkSchema = z.object({
+  add: z.array(playerName).max(10000).default([]),
+  remove: z.array(playerName).max(10000).default([]),
+});
+
+const playerUuid = z.string().uuid();
+
 const commandSchema = z.object({
   command: z.string().min(1).max(50),
   args: z.array(z.string().max(500)).default([]),
 });
 
+// --- Query parameters forwarded to the plugin ---
+const PLAYER_LIST_PARAMS = ["limit", "cursor", "fields", "world", "gamemode", "prefix", "op"];
+const WHITELIST_LIST_PARAMS = ["limit", "cursor", "fields", "prefix"];
+const HISTORY_PARAMS = ["metric", "window", "points"];
+const CONSOLE_PARAMS = ["after", "limit"];
+const HEATMAP_PARAMS = ["world", "resolution"];
+
+/**
+ * Build a query string from the allowed string parameters of a request.
+ */
+function forwardQuery(req: Request, allowed: string[]): string {
+  const params = new URLSearchParams();
+  for (const key of allowed) {
+    const value = req.query[key];
+    if (typeof value === "string" && value.length > 0) {
+      params.set(key, value);
+    }
+  }
+  const query = params.toString();
+  return query ? `?${query}` : "";
+}
+
 /**
  * GET /mc/health
  */
@@ -35,15 +66,29 @@ mcRouter.get("/health", async (req: Request, res: Response): Promise<void> => {
 
 /**
  * GET /mc/players
+ * Optional: limit, cursor, fields, world, gamemode, prefix, op
  */
 mcRouter.get("/players", async (req: Request, res: Response): Promise<void> => {
   const result = await pluginFetch({
-    path: "/api/players",
+    path: `/api/players${forwardQuery(req, PLAYER_LIST_PARAMS)}`,
     actor: req.user!.username,
   });
   res.status(result.status).json(result.data);
 });
 
+/**
+ * Every /player/:uuid route interpolates the UUID into the plugin path, so
+ * reject anything else before proxying: an encoded "../" would otherwise
+ * reach a different plugin endpoint past this router's role checks.
+ */
+mcRouter.param("uuid", (req: Request, res: Response, next, value: string) => {
+  if (!playerUuid.safeParse(value).success) {
+    res.status(400).json({ error: "Invalid player UUID" });
+    return;
+  }
+  next();
+});
+
 /**
  * GET /mc/player/:uuid
  */
@@ -87,12 +132,94 @@ mcRouter.get(
   }
 );
 
+/**
+ * GET /mc/player/:uuid/history
+ * Optional: metric, window, points
+ */
+mcRouter.get("/player/:uuid/history", async (req: Request, res: Response): Promise<void> => {
+  const result = await pluginFetch({
+    path: `/api/player/${req.params.uuid}/history${forwardQuery(req, HISTORY_PARAMS)}`,
+    actor: req.user!.username,
+  });
+  res.status(result.status).json(result.data);
+});
+
+/**
+ * GET /mc/console (ADMIN only)
+ * Optional: after, limit
+ */
+mcRouter.get(
+  "/console",
+  requireRole("ADMIN"),
+  async (req: Request, res: Response): Promise<void> => {
+    const result = await pluginFetch({
+      path: `/api/console${forwardQuery(req, CONSOLE_PARAMS)}`,
+      actor: req.user!.username,
+    });
+    res.status(result.status).json(result.data);
+  }
+);
+
+/**
+ * GET /mc/heatmap?world=&resolution=
+ * Player density per world (without world: the worlds that have samples)
+ */
+mcRouter.get("/heatmap", async (req: Request, res: Response): Promise<void> => {
+  const result = await pluginFetch({
+    path: `/api/heatmap${forwardQuery(req, HEATMAP_PARAMS)}`,
+    actor: req.user!.username,
+  });
+  res.status(result.status).json(result.data);
+});
+
+/**
+ * GET /mc/lag/scan
+ * Scan progress and the latest hotspot report
+ */
+mcRouter.get("/lag/scan", async (req: Request, res: Response): Promise<void> => {
+  const result = await pluginFetch({
+    path: "/api/lag/scan",
+    actor: req.user!.username,
+  });
+  res.status(result.status).json(result.data);
+});
+
+/**
+ * POST /mc/lag/scan (MOD/ADMIN only)
+ * Starts a scan of all loaded chunks
+ */
+mcRouter.post(
+  "/lag/scan",
+  requireRole("MOD"),
+  async (req: Request, res: Response): Promise<void> => {
+    await logAudit(req, "LAG_SCAN");
+    const result = await pluginFetch({
+      method: "POST",
+      path: "/api/lag/scan",
+      actor: req.user!.username,
+    });
+    res.status(result.status).json(result.data);
+  }
+);
+
 /**
  * GET /mc/whitelist
+ * Optional: limit, cursor, fields, prefix
  */
 mcRouter.get("/whitelist", async (req: Request, res: Response): Promise<void> => {
   const result = await pluginFetch({
-    path: "/api/whitelist",
+    path: `/api/whitelist${forwardQuery(req, WHITELIST_LIST_PARAMS)}`,
+    actor: req.user!.username,
+  });
+  res.status(result.status).json(result.data);
+});
+
+/**
+ * GET /mc/whitelist/search?prefix=&limit=
+ */
+mcRouter.get("/whitelist/search", async (req: Request, res: Response): Promise<void> => {
+  const result = await pluginFetch({
+    path: `/api/whitelist/search${forwardQuery(req, ["prefix", "limit"])}`,
     actor: req.user!.username,
   });
   res.status(result.status).json(result.data);
@@ -148,6 +275,34 @@ mcRouter.post(
   }
 );
 
+/**
+ * POST /mc/whitelist/bulk (MOD/ADMIN)
+ */
+mcRouter.post(
+  "/whitelist/bulk",
+  requireRole("MOD"),
+  async (req: Request, res: Response): Promise<void> => {
+    const parsed = whitelistBulkSchema.safeParse(req.body);
+    if (!parsed.success) {
+      res.status(400).json({ error: "Invalid player names" });
+      return;
+    }
+
+    await logAudit(req, "WHITELIST_BULK", undefined, {
+      add: parsed.data.add.length,
+      remove: parsed.data.remove.length,
+    });
+
+    const result = await pluginFetch({
+      method: "POST",
+      path: "/api/whitelist/bulk",
+      body: parsed.data,
+      actor: req.user!.username,
+    });
+    res.status(result.status).json(result.data);
+  }
+);
+
 /**
  * POST /mc/command (MOD/ADMIN, whitelisted commands only)
  */
@@ -0,0 +1,160 @@
+/**
+ * Minimal CBOR (RFC 8949) decoder for plugin responses sent as
+ * application/cbor. Covers what the plugin emits: integers, floats, text,
+ * booleans, null, and definite or indefinite-length arrays and maps.
+ */
+
+const BREAK = Symbol("break");
+const utf8 = new TextDecoder();
+
+class Reader {
+  private offset = 0;
+  private readonly view: DataView;
+
+  constructor(private readonly bytes: Uint8Array) {
+    this.view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  }
+
+  item(): unknown {
+    const initial = this.view.getUint8(this.offset++);
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+
+    if (major === 7) {
+      return this.simple(info);
+    }
+    if (info === 31) {
+      return this.indefinite(major);
+    }
+
+    const arg = this.argument(info);
+    switch (major) {
+      case 0:
+        return arg;
+      case 1:
+        return -1 - arg;
+      case 2:
+        return this.take(arg);
+      case 3:
+        return utf8.decode(this.take(arg));
+      case 4: {
+        const items: unknown[] = new Array(arg);
+        for (let i = 0; i < arg; i++) items[i] = this.item();
+        return items;
+      }
+      case 5: {
+        const map: Record<string, unknown> = {};
+        for (let i = 0; i < arg; i++) map[String(this.item())] = this.item();
+        return map;
+      }
+      default:
+        // Tags (major 6) are not emitted by the plugin; decode the tagged value as-is
+        return this.item();
+    }
+  }
+
+  get done(): boolean {
+    return this.offset >= this.bytes.length;
+  }
+
+  private indefinite(major: number): unknown {
+    if (major === 4) {
+      const items: unknown[] = [];
+      for (let v = this.item(); v !== BREAK; v = this.item()) items.push(v);
+      return items;
+    }
+    if (major === 5) {
+      const map: Record<string, unknown> = {};
+      for (let k = this.item(); k !== BREAK; k = this.item()) map[String(k)] = this.item();
+      return map;
+    }
+    if (major === 3) {
+      let text = "";
+      for (let v = this.item(); v !== BREAK; v = this.item()) text += v as string;
+      return text;
+    }
+    throw new Error(`Unsupported indefinite-length CBOR major type ${major}`);
+  }
+
+  private simple(info: number): unknown {
+    switch (info) {
+      case 20:
+        return false;
+      case 21:
+        return true;
+      case 22:
+      case 23:
+        return null;
+      case 25:
+        return this.half();
+      case 26: {
+        const v = this.view.getFloat32(this.offset);
+        this.offset += 4;
+        return v;
+      }
+      case 27: {
+        const v = this.view.getFloat64(this.offset);
+        this.offset += 8;
+        return v;
+      }
+      case 31:
+        return BREAK;
+      default:
+        throw new Error(`Unsupported CBOR simple value ${info}`);
+    }
+  }
+
+  private half(): number {
+    const bits = this.view.getUint16(this.offset);
+    this.offset += 2;
+    const exp = (bits >> 10) & 0x1f;
+    const mant = bits & 0x3ff;
+    const sign = bits & 0x8000 ? -1 : 1;
+    if (exp === 0) return sign * mant * 2 ** -24;
+    if (exp === 31) return mant ? NaN : sign * Infinity;
+    return sign * (1 + mant / 1024) * 2 ** (exp - 15);
+  }
+
+  private argument(info: number): number {
+    if (info < 24) return info;
+    let v: number;
+    switch (info) {
+      case 24:
+        v = this.view.getUint8(this.offset);
+        this.offset += 1;
+        return v;
+      case 25:
+        v = this.view.getUint16(this.offset);
+        this.offset += 2;
+        return v;
+      case 26:
+        v = this.view.getUint32(this.offset);
+        this.offset += 4;
+        return v;
+      case 27:
+        v = Number(this.view.getBigUint64(this.offset));
+        this.offset += 8;
+        return v;
+      default:
+        throw new Error(`Invalid CBOR additional info ${info}`);
+    }
+  }
+
+  private take(length: number): Uint8Array {
+    const slice = this.bytes.subarray(this.offset, this.offset + length);
+    this.offset += length;
+    return slice;
+  }
+}
+
+/**
+ * Decode a single CBOR data item.
+ */
+export function decodeCbor(bytes: Uint8Array): unknown {
+  const reader = new Reader(bytes);
+  const value = reader.item();
+  if (!reader.done) {
+    throw new Error("Trailing bytes after CBOR item");
+  }
+  return value;
+}
@@ -3,8 +3,12 @@
  * Only the backend knows the plugin's sharedSecret.
  */
 
+import { decodeCbor } from "./cbor";
+
 const PLUGIN_BASE_URL = process.env.PLUGIN_BASE_URL || "http://127.0.0.1:8765";
 const PLUGIN_SECRET = process.env.PLUGIN_SHARED_SECRET || "";
+// Ask the plugin for CBOR bodies (smaller, cheaper to decode); set to "json" to opt out
+const PLUGIN_WIRE_FORMAT = process.env.PLUGIN_WIRE_FORMAT || "cbor";
 
 interface PluginRequestOptions {
   method?: string;
@@ -18,6 +22,53 @@ interface PluginResponse {
   data: unknown;
 }
 
+interface CachedBody {
+  etag: string;
+  data: unknown;
+}
+
+/**
+ * Last validated body per GET path. The plugin answers a matching
+ * If-None-Match with 304 and no body, so unchanged polls are served from here.
+ * Paths carry user-supplied query strings, so the map is kept in
+ * least-recently-used order and capped; cursor pages are never stored.
+ */
+const etagCache = new Map<string, CachedBody>();
+const ETAG_CACHE_MAX_ENTRIES = 128;
+
+function cacheable(path: string): boolean {
+  return !/[?&]cursor=/.test(path);
+}
+
+function getCached(path: string): CachedBody | undefined {
+  const cached = etagCache.get(path);
+  if (cached) {
+    // Re-insert to mark as most recently used
+    etagCache.delete(path);
+    etagCache.set(path, cached);
+  }
+  return cached;
+}
+
+function setCached(path: string, entry: CachedBody): void {
+  etagCache.delete(path);
+  etagCache.set(path, entry);
+  if (etagCache.size > ETAG_CACHE_MAX_ENTRIES) {
+    etagCache.delete(etagCache.keys().next().value as string);
+  }
+}
+
+/**
+ * Decode a plugin response body according to its Content-Type.
+ */
+async function readBody(response: Response): Promise<unknown> {
+  const contentType = response.headers.get("content-type") || "";
+  if (contentType.startsWith("application/cbor")) {
+    return decodeCbor(new Uint8Array(await response.arrayBuffer()));
+  }
+  return response.json();
+}
+
 /**
  * Make a request to the plugin HTTP API.
  */
@@ -29,12 +80,20 @@ export async function pluginFetch(options: PluginRequestOptions): Promise<Plugin
   const headers: Record<string, string> = {
     "Content-Type": "application/json",
     "X-Panel-Secret": PLUGIN_SECRET,
+    Accept: PLUGIN_WIRE_FORMAT === "cbor"
+      ? "application/cbor, application/json;q=0.9"
+      : "application/json",
   };
 
   if (actor) {
     headers["X-Panel-Actor"] = actor;
   }
 
+  const cached = method === "GET" && cacheable(path) ? getCached(path) : undefined;
+  if (cached) {
+    headers["If-None-Match"] = cached.etag;
+  }
+
   const fetchOptions: RequestInit = {
     method,
     headers,
@@ -46,7 +105,15 @@ export async function pluginFetch(options: PluginRequestOptions): Promise<Plugin
 
   try {
     const response = await fetch(url, fetchOptions);
-    const data = await response.json();
+    if (response.status === 304 && cached) {
+      return { status: 200, data: cached.data };
+    }
+
+    const data = await readBody(response);
+    const etag = response.headers.get("etag");
+    if (method === "GET" && response.ok && etag && cacheable(path)) {
+      setCached(path, { etag, data });
+    }
     return { status: response.status, data };
   } catch (err) {
     console.error(`[PluginProxy] Error calling ${url}:`, err);
@@ -0,0 +1,68 @@
+package com.minepanel.bridge.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Minimal timing loop for the benchmarks in this source set: warms a case up,
+ * then reports mean time and heap allocation per operation on the calling
+ * thread. Good enough to compare two ways of doing the same work in one run,
+ * not for absolute numbers.
+ */
+final class Bench {
+
+    @FunctionalInterface
+    interface Op {
+        /** Returns something derived from the work so it cannot be optimized away. */
+        long run() throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    /** Keeps results reachable. */
+    static long sink;
+
+    private Bench() {
+    }
+
+    /**
+     * Nanoseconds and bytes allocated per call of {@code op}.
+     */
+    record Result(String name, double nanosPerOp, double bytesPerOp) {
+
+        void print() {
+            System.out.printf(Locale.ROOT, "  %-28s %12.1f us/op %14.0f B/op%n",
+                    name, nanosPerOp / 1000.0, bytesPerOp);
+        }
+    }
+
+    static Result measure(String name, Op op) throws Exception {
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            sink += op.run();
+        }
+
+        long thread = Thread.currentThread().threadId();
+        long ops = 0;
+        long allocated = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        end = start + MEASURE_NANOS;
+        long now;
+        do {
+            for (int i = 0; i < 16; i++) {
+                sink += op.run();
+            }
+            ops += 16;
+            now = System.nanoTime();
+        } while (now < end);
+        allocated = THREADS.getThreadAllocatedBytes(thread) - allocated;
+
+        Result result = new Result(name, (double) (now - start) / ops, (double) allocated / ops);
+        result.print();
+        return result;
+    }
+}
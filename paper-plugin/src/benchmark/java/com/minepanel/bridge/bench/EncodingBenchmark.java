@@ -0,0 +1,52 @@
+package com.minepanel.bridge.bench;
+
+import com.google.gson.stream.JsonWriter;
+import com.minepanel.bridge.http.ResponseEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and encode time of a /api/players body in each {@link ResponseEncoding},
+ * uncompressed and gzipped.
+ *
+ * Run with {@code ./gradlew benchmark -Pbenchmark=EncodingBenchmark}.
+ */
+public final class EncodingBenchmark {
+
+    private EncodingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int count : new int[]{10, 100, 1000}) {
+            List<Samples.Player> players = Samples.players(count);
+            System.out.println(count + " players");
+            for (ResponseEncoding encoding : ResponseEncoding.values()) {
+                byte[] body = encode(encoding, players);
+                System.out.printf(Locale.ROOT, "  %-5s %9d B %9d B gzipped%n",
+                        encoding, body.length, gzip(body).length);
+            }
+            for (ResponseEncoding encoding : ResponseEncoding.values()) {
+                Bench.measure("encode " + encoding, () -> encode(encoding, players).length);
+            }
+        }
+    }
+
+    private static byte[] encode(ResponseEncoding encoding, List<Samples.Player> players) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (JsonWriter out = encoding.newWriter(bytes)) {
+            Samples.write(out, players);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] body) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+}
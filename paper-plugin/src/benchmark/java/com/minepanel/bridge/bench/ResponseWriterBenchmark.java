@@ -0,0 +1,77 @@
+package com.minepanel.bridge.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.minepanel.bridge.http.ResponseEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Time and allocation of producing a /api/players body three ways:
+ * <ul>
+ *   <li>tree: JsonObject per player, toString() and getBytes(), as handlers
+ *       did before responses were streamed</li>
+ *   <li>stream to bytes: JsonWriter into a byte buffer, as ResponseCache encodes</li>
+ *   <li>stream to sink: JsonWriter straight into the response stream, as
+ *       HttpApiServer.sendJson does (a discarding stream here)</li>
+ * </ul>
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+public final class ResponseWriterBenchmark {
+
+    private ResponseWriterBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int count : new int[]{100, 1000}) {
+            List<Samples.Player> players = Samples.players(count);
+            System.out.println(count + " players");
+            Bench.measure("tree", () -> tree(players).length);
+            Bench.measure("stream to bytes", () -> streamToBytes(players).length);
+            Bench.measure("stream to sink", () -> streamToSink(players));
+        }
+    }
+
+    private static byte[] tree(List<Samples.Player> players) {
+        JsonArray array = new JsonArray();
+        for (Samples.Player p : players) {
+            JsonObject pj = new JsonObject();
+            pj.addProperty("uuid", p.uuid().toString());
+            pj.addProperty("name", p.name());
+            pj.addProperty("world", p.world());
+            pj.addProperty("x", Samples.round(p.x()));
+            pj.addProperty("y", Samples.round(p.y()));
+            pj.addProperty("z", Samples.round(p.z()));
+            pj.addProperty("yaw", Samples.round(p.yaw()));
+            pj.addProperty("pitch", Samples.round(p.pitch()));
+            pj.addProperty("health", p.health());
+            pj.addProperty("food", p.food());
+            pj.addProperty("expLevel", p.expLevel());
+            pj.addProperty("gamemode", p.gamemode());
+            pj.addProperty("ping", p.ping());
+            pj.addProperty("isOp", p.op());
+            array.add(pj);
+        }
+        return array.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] streamToBytes(List<Samples.Player> players) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (JsonWriter out = ResponseEncoding.JSON.newWriter(bytes)) {
+            Samples.write(out, players);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long streamToSink(List<Samples.Player> players) throws Exception {
+        try (JsonWriter out = ResponseEncoding.JSON.newWriter(OutputStream.nullOutputStream())) {
+            Samples.write(out, players);
+        }
+        return players.size();
+    }
+}
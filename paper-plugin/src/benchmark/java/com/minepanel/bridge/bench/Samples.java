@@ -0,0 +1,77 @@
+package com.minepanel.bridge.bench;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic player lists shaped like the /api/players body, with a fixed seed
+ * so every run encodes the same data.
+ */
+final class Samples {
+
+    /** The fields PlayersHandler writes for each player. */
+    record Player(UUID uuid, String name, String world, double x, double y, double z, float yaw, float pitch,
+                  double health, int food, int expLevel, String gamemode, int ping, boolean op) {}
+
+    private static final String[] WORLDS = {"world", "world_nether", "world_the_end"};
+    private static final String[] GAMEMODES = {"SURVIVAL", "SURVIVAL", "SURVIVAL", "CREATIVE", "SPECTATOR"};
+
+    private Samples() {
+    }
+
+    static List<Player> players(int count) {
+        Random random = new Random(42);
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Player(
+                    new UUID(random.nextLong(), random.nextLong()),
+                    "Player_" + Integer.toString(random.nextInt(1 << 20), 36),
+                    WORLDS[random.nextInt(WORLDS.length)],
+                    (random.nextDouble() - 0.5) * 20000,
+                    random.nextDouble() * 256 - 64,
+                    (random.nextDouble() - 0.5) * 20000,
+                    random.nextFloat() * 360 - 180,
+                    random.nextFloat() * 180 - 90,
+                    Math.round(random.nextDouble() * 40) / 2.0,
+                    random.nextInt(21),
+                    random.nextInt(60),
+                    GAMEMODES[random.nextInt(GAMEMODES.length)],
+                    random.nextInt(250),
+                    random.nextInt(20) == 0));
+        }
+        return players;
+    }
+
+    /** Writes the list the way PlayersHandler renders it. */
+    static void write(JsonWriter out, List<Player> players) throws IOException {
+        out.beginArray();
+        for (Player p : players) {
+            out.beginObject();
+            out.name("uuid").value(p.uuid().toString());
+            out.name("name").value(p.name());
+            out.name("world").value(p.world());
+            out.name("x").value(round(p.x()));
+            out.name("y").value(round(p.y()));
+            out.name("z").value(round(p.z()));
+            out.name("yaw").value(round(p.yaw()));
+            out.name("pitch").value(round(p.pitch()));
+            out.name("health").value(p.health());
+            out.name("food").value(p.food());
+            out.name("expLevel").value(p.expLevel());
+            out.name("gamemode").value(p.gamemode());
+            out.name("ping").value(p.ping());
+            out.name("isOp").value(p.op());
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
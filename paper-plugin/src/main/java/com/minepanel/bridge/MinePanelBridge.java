@@ -1,10 +1,33 @@
 package com.minepanel.bridge;
 
 import com.minepanel.bridge.config.PluginConfig;
+import com.minepanel.bridge.console.ConsoleAppender;
+import com.minepanel.bridge.console.ConsoleBuffer;
+import com.minepanel.bridge.health.HealthSampler;
+import com.minepanel.bridge.heatmap.HeatmapAggregator;
+import com.minepanel.bridge.history.PlayerHistory;
 import com.minepanel.bridge.http.HttpApiServer;
 import com.minepanel.bridge.audit.AuditLogger;
+import com.minepanel.bridge.inventory.InventoryTracker;
+import com.minepanel.bridge.lag.LagScanner;
+import com.minepanel.bridge.listener.InventoryChangeListener;
+import com.minepanel.bridge.listener.PlayerActivityListener;
+import com.minepanel.bridge.listener.WhitelistChangeListener;
+import com.minepanel.bridge.metrics.Metrics;
+import com.minepanel.bridge.playerdata.OfflinePlayerReader;
+import com.minepanel.bridge.scheduler.BudgetedTaskQueue;
+import com.minepanel.bridge.scheduler.MainThreadScheduler;
+import com.minepanel.bridge.serialization.ItemFragmentCache;
+import com.minepanel.bridge.serialization.ItemSerializer;
+import com.minepanel.bridge.snapshot.SnapshotService;
+import com.minepanel.bridge.stream.EventStream;
+import com.minepanel.bridge.whitelist.WhitelistIndex;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
 /**
  * MinePanelBridge — Paper plugin that exposes a local HTTP API
  * for the MinePanel backend to communicate with the Minecraft server.
@@ -17,6 +40,21 @@ public class MinePanelBridge extends JavaPlugin {
     private HttpApiServer httpServer;
     private AuditLogger auditLogger;
     private PluginConfig pluginConfig;
+    private final Metrics metrics = new Metrics();
+    private MainThreadScheduler mainThreadScheduler;
+    private SnapshotService snapshotService;
+    private HealthSampler healthSampler;
+    private BudgetedTaskQueue taskQueue;
+    private InventoryTracker inventoryTracker;
+    private OfflinePlayerReader offlinePlayerReader;
+    private PlayerHistory playerHistory;
+    private LagScanner lagScanner;
+    private HeatmapAggregator heatmapAggregator;
+    private ConsoleBuffer consoleBuffer;
+    private ConsoleAppender consoleAppender;
+    private WhitelistIndex whitelistIndex;
+    private EventStream eventStream;
+    private PlayerActivityListener activityListener;
 
     @Override
     public void onEnable() {
@@ -25,7 +63,7 @@ public class MinePanelBridge extends JavaPlugin {
         reloadConfig();
 
         // Load configuration
-        pluginConfig = new PluginConfig(getConfig());
+        pluginConfig = new PluginConfig(getConfig(), getLogger());
 
         // Warn if bind address is not localhost
         if (!pluginConfig.getBindAddress().equals("127.0.0.1")
@@ -45,8 +83,77 @@ public class MinePanelBridge extends JavaPlugin {
             getLogger().severe("==============================================");
         }
 
+        // Copy of recent console output for /api/console
+        if (pluginConfig.getConsoleBufferLines() > 0) {
+            consoleBuffer = new ConsoleBuffer(pluginConfig.getConsoleBufferLines(), pluginConfig.getStreamMaxClients());
+            consoleAppender = ConsoleAppender.attach(consoleBuffer);
+        }
+
+        // All bridge main-thread work is scheduled (and timed) through this
+        mainThreadScheduler = new MainThreadScheduler(this);
+        mainThreadScheduler.start();
+
         // Initialize audit logger
-        auditLogger = new AuditLogger(getDataFolder(), pluginConfig.getLogFile());
+        auditLogger = new AuditLogger(getDataFolder(), pluginConfig, getLogger());
+
+        // Start main-thread snapshot capture (handlers read from it)
+        snapshotService = new SnapshotService(this, pluginConfig.getSnapshotIntervalTicks());
+        snapshotService.start();
+
+        // MSPT, per-world counts and JVM stats for /api/health
+        healthSampler = new HealthSampler(this);
+        getServer().getPluginManager().registerEvents(healthSampler, this);
+        healthSampler.start();
+
+        // Time-budgeted main-thread queue for batched work
+        taskQueue = new BudgetedTaskQueue(this, pluginConfig.getMainThreadBudgetMicros());
+        taskQueue.start();
+
+        // Cache of serialized item JSON shared by inventory endpoints
+        ItemSerializer.configureCache(pluginConfig.getItemCacheSize());
+
+        // Versioned inventories for players watched through the panel
+        inventoryTracker = new InventoryTracker(this, pluginConfig.getInventoryTrackIdleSeconds());
+        getServer().getPluginManager().registerEvents(new InventoryChangeListener(inventoryTracker), this);
+        inventoryTracker.start();
+
+        // Saved playerdata of offline players, read from the main world folder
+        if (pluginConfig.isEnableOfflinePlayerView() && !getServer().getWorlds().isEmpty()) {
+            offlinePlayerReader = new OfflinePlayerReader(getServer().getWorlds().get(0).getWorldFolder(),
+                    pluginConfig.getOfflinePlayerCacheSize(), getLogger());
+        }
+
+        // Short per-player history of ping, health, position and XP
+        if (pluginConfig.getHistorySamples() > 0) {
+            playerHistory = new PlayerHistory(this, pluginConfig.getHistorySamples(),
+                    pluginConfig.getHistorySampleIntervalTicks(), pluginConfig.getHistoryMaxPlayers(),
+                    pluginConfig.getHistoryRetainOfflineSeconds());
+            playerHistory.start();
+        }
+
+        // On-demand chunk scan for entity/tile entity hotspots
+        lagScanner = new LagScanner(this, pluginConfig.getLagScanBudgetMicros(), pluginConfig.getLagScanTopChunks());
+
+        // Player density per world, sampled off-thread from snapshots
+        if (pluginConfig.getHeatmapSampleIntervalTicks() > 0) {
+            heatmapAggregator = new HeatmapAggregator(this, snapshotService,
+                    pluginConfig.getHeatmapSampleIntervalTicks(), pluginConfig.getHeatmapHalfLifeMinutes(),
+                    pluginConfig.getHeatmapMaxCells());
+            heatmapAggregator.start();
+        }
+
+        // Whitelist name/UUID index, updated by events and reconciled off-thread
+        whitelistIndex = new WhitelistIndex(this, pluginConfig.getWhitelistReconcileSeconds());
+        getServer().getPluginManager().registerEvents(new WhitelistChangeListener(whitelistIndex), this);
+        whitelistIndex.start();
+
+        // Live event stream for /api/stream, fed by Bukkit listeners
+        eventStream = new EventStream(pluginConfig.getStreamMaxClients());
+        activityListener = new PlayerActivityListener(this, eventStream, pluginConfig.getStreamMoveThreshold());
+        getServer().getPluginManager().registerEvents(activityListener, this);
+        activityListener.start();
+
+        registerMetrics();
 
         // Start HTTP server
         try {
@@ -64,17 +171,192 @@ public class MinePanelBridge extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (eventStream != null) {
+            eventStream.closeAll();
+        }
+        if (consoleAppender != null) {
+            consoleAppender.detach();
+        }
+        if (consoleBuffer != null) {
+            consoleBuffer.close();
+        }
         if (httpServer != null) {
             httpServer.stop();
             getLogger().info("MinePanelBridge HTTP API stopped.");
         }
+        if (activityListener != null) {
+            activityListener.stop();
+        }
+        if (taskQueue != null) {
+            taskQueue.stop();
+        }
+        if (inventoryTracker != null) {
+            inventoryTracker.stop();
+        }
+        if (playerHistory != null) {
+            playerHistory.stop();
+        }
+        if (lagScanner != null) {
+            lagScanner.stop();
+        }
+        if (heatmapAggregator != null) {
+            heatmapAggregator.stop();
+        }
+        if (whitelistIndex != null) {
+            whitelistIndex.stop();
+        }
+        if (healthSampler != null) {
+            healthSampler.stop();
+        }
+        if (snapshotService != null) {
+            snapshotService.stop();
+        }
+        if (mainThreadScheduler != null) {
+            mainThreadScheduler.stop();
+        }
         if (auditLogger != null) {
             auditLogger.close();
         }
         getLogger().info("MinePanelBridge disabled.");
     }
 
+    /**
+     * Expose component counters on /api/metrics. Values are read at scrape time.
+     */
+    private void registerMetrics() {
+        metrics.gauge("audit_queue_depth", "Audit entries waiting to be written.", auditLogger::getQueued);
+        metrics.counter("audit_enqueued_total", "Audit entries accepted.", auditLogger::getEnqueued);
+        metrics.counter("audit_dropped_total", "Audit entries dropped because the queue was full.", auditLogger::getDropped);
+        metrics.counter("audit_written_total", "Audit entries written to disk.", auditLogger::getWritten);
+        metrics.counter("audit_failed_total", "Audit entries in batches that failed to write.", auditLogger::getFailed);
+        metrics.counter("audit_batches_total", "Audit write batches.", auditLogger::getBatches);
+        metrics.gauge("main_thread_queue_depth", "Tasks waiting on the budgeted main-thread queue.", taskQueue::getPending);
+        metrics.gauge("stream_clients", "Connected /api/stream clients.", eventStream::getClientCount);
+        metrics.gauge("inventory_tracked_players", "Players with tracked inventories.", inventoryTracker::getTrackedCount);
+        metrics.gauge("whitelist_index_size", "Entries in the whitelist index.", whitelistIndex::size);
+        metrics.counter("item_cache_hits_total", "Serialized item cache hits.", () -> {
+            ItemFragmentCache cache = ItemSerializer.getCache();
+            return cache != null ? cache.getHits() : 0;
+        });
+        metrics.counter("item_cache_misses_total", "Serialized item cache misses.", () -> {
+            ItemFragmentCache cache = ItemSerializer.getCache();
+            return cache != null ? cache.getMisses() : 0;
+        });
+        metrics.gauge("main_thread_last_second_seconds", "Bridge main-thread time over the last 20 ticks.",
+                () -> mainThreadScheduler.getStats().lastSecondNanos() / 1e9);
+        metrics.gauge("main_thread_tick_avg_seconds", "Average bridge main-thread time per tick over the last minute.",
+                () -> mainThreadScheduler.getStats().avgTickNanos() / 1e9);
+        metrics.gauge("main_thread_tick_worst_seconds", "Worst bridge main-thread time in a single tick over the last minute.",
+                () -> mainThreadScheduler.getStats().worstTickNanos() / 1e9);
+        metrics.labeledCounter("main_thread_task_runs_total", "Bridge main-thread task runs by task.", "task",
+                () -> mapValues(mainThreadScheduler.getTaskStats(), MainThreadScheduler.TaskStats::getRuns));
+        metrics.labeledCounter("main_thread_task_seconds_total", "Bridge main-thread time by task.", "task",
+                () -> mapValues(mainThreadScheduler.getTaskStats(), t -> t.getTotalNanos() / 1e9));
+        metrics.gauge("snapshot_online_players", "Online players in the latest snapshot.",
+                () -> snapshotService.getCurrent().onlinePlayers());
+        if (offlinePlayerReader != null) {
+            metrics.counter("offline_player_cache_hits_total", "Offline player reads served from cache.",
+                    offlinePlayerReader::getHits);
+            metrics.counter("offline_player_cache_misses_total", "Offline player data files parsed.",
+                    offlinePlayerReader::getMisses);
+        }
+        if (playerHistory != null) {
+            metrics.gauge("player_history_players", "Players with kept history.", playerHistory::getPlayerCount);
+            metrics.gauge("player_history_bytes", "Memory held by player history buffers.", playerHistory::getBytes);
+        }
+        if (consoleBuffer != null) {
+            metrics.counter("console_lines_total", "Console lines captured.", () -> consoleBuffer.lastSequence() + 1);
+            metrics.gauge("console_stream_clients", "Connected /api/console/stream clients.",
+                    consoleBuffer::getSubscriberCount);
+        }
+        if (heatmapAggregator != null) {
+            metrics.gauge("heatmap_cells", "Heatmap cells across all worlds.", heatmapAggregator::getCellCount);
+            metrics.counter("heatmap_dropped_samples_total", "Player samples dropped at the heatmap cell limit.",
+                    heatmapAggregator::getDroppedSamples);
+        }
+        metrics.gauge("server_mspt_p95_seconds", "95th percentile server tick time over the last minute.",
+                () -> healthSampler.getCurrent().msptP95() / 1e3);
+        metrics.gauge("server_mspt_p99_seconds", "99th percentile server tick time over the last minute.",
+                () -> healthSampler.getCurrent().msptP99() / 1e3);
+        metrics.gauge("jvm_heap_used_bytes", "JVM heap in use at the last health sample.",
+                () -> healthSampler.getCurrent().memory().heapUsed());
+    }
+
+    private static <T> Map<String, Double> mapValues(Map<String, T> source, ToDoubleFunction<T> value) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        source.forEach((key, v) -> result.put(key, value.applyAsDouble(v)));
+        return result;
+    }
+
+    public MainThreadScheduler getMainThreadScheduler() {
+        return mainThreadScheduler;
+    }
+
     public PluginConfig getPluginConfig() {
         return pluginConfig;
     }
+
+    public SnapshotService getSnapshotService() {
+        return snapshotService;
+    }
+
+    public HealthSampler getHealthSampler() {
+        return healthSampler;
+    }
+
+    public AuditLogger getAuditLogger() {
+        return auditLogger;
+    }
+
+    public BudgetedTaskQueue getTaskQueue() {
+        return taskQueue;
+    }
+
+    public InventoryTracker getInventoryTracker() {
+        return inventoryTracker;
+    }
+
+    /**
+     * Reader for offline players' saved data, or null if the offline view is disabled.
+     */
+    public OfflinePlayerReader getOfflinePlayerReader() {
+        return offlinePlayerReader;
+    }
+
+    /**
+     * Per-player history, or null if disabled (historySamples: 0).
+     */
+    public PlayerHistory getPlayerHistory() {
+        return playerHistory;
+    }
+
+    /**
+     * Recent console output, or null if disabled (consoleBufferLines: 0).
+     */
+    public ConsoleBuffer getConsoleBuffer() {
+        return consoleBuffer;
+    }
+
+    public LagScanner getLagScanner() {
+        return lagScanner;
+    }
+
+    /**
+     * Player density grids, or null if disabled (heatmapSampleIntervalTicks: 0).
+     */
+    public HeatmapAggregator getHeatmapAggregator() {
+        return heatmapAggregator;
+    }
+
+    public WhitelistIndex getWhitelistIndex() {
+        return whitelistIndex;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public EventStream getEventStream() {
+        return eventStream;
+    }
 }
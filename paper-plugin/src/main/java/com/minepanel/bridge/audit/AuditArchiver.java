@@ -0,0 +1,216 @@
+package com.minepanel.bridge.audit;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Names rotated audit segments, compresses them with gzip on a background
+ * thread and enforces archive retention. The audit writer only renames the
+ * active file; it never waits on compression.
+ *
+ * Rotated segments are named {@code <base>-<yyyyMMdd-HHmmss>.log} and become
+ * {@code <base>-<yyyyMMdd-HHmmss>.log.gz} once compressed. Each segment's
+ * {@link AuditIndex} file moves with it and stays uncompressed.
+ */
+public class AuditArchiver {
+
+    private static final DateTimeFormatter SEGMENT_STAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final File directory;
+    private final String baseName;
+    private final String extension;
+    private final int retainArchives;
+    private final Logger logger;
+    private final ExecutorService compressor;
+
+    public AuditArchiver(File activeLog, int retainArchives, Logger logger) {
+        this.directory = activeLog.getParentFile();
+        String name = activeLog.getName();
+        int dot = name.lastIndexOf('.');
+        this.baseName = dot > 0 ? name.substring(0, dot) : name;
+        this.extension = dot > 0 ? name.substring(dot) : "";
+        this.retainArchives = retainArchives;
+        this.logger = logger;
+        this.compressor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "MinePanel-Audit-Compress");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Move the (closed) active log aside as a new segment and schedule its compression.
+     * Fails without changes if the log cannot be moved. Once it has moved, the
+     * rotation completes even if its index cannot follow: the segment's index is
+     * rebuilt from the segment instead.
+     *
+     * @return the renamed segment
+     */
+    public File rotate(File activeLog, long rotatedAt) throws IOException {
+        File segment = segmentFile(rotatedAt);
+        Files.move(activeLog.toPath(), segment.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        File index = AuditIndex.indexFor(activeLog);
+        if (index.exists()) {
+            try {
+                Files.move(index.toPath(), AuditIndex.indexFor(segment).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.warning("Failed to move audit index " + index.getName() + ", rebuilding it: " + e.getMessage());
+                // Left in place it would describe the new active log with the old log's offsets.
+                // If it cannot be deleted either, AuditIndex.open discards it as longer than the log
+                try {
+                    Files.deleteIfExists(index.toPath());
+                } catch (IOException ignored) {
+                }
+                rebuildIndex(segment);
+            }
+        }
+        compressor.execute(() -> compress(segment));
+        return segment;
+    }
+
+    private void rebuildIndex(File segment) {
+        AuditIndex index = new AuditIndex(segment);
+        try {
+            index.open();
+            index.close();
+        } catch (IOException e) {
+            logger.warning("Failed to rebuild audit index for " + segment.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compress segments left uncompressed by an earlier shutdown and apply retention.
+     */
+    public void recover() {
+        File[] pending = directory.listFiles((dir, name) -> isSegment(name) && name.endsWith(extension));
+        if (pending != null) {
+            for (File segment : pending) {
+                compressor.execute(() -> compress(segment));
+            }
+        }
+        compressor.execute(this::applyRetention);
+    }
+
+    /**
+     * Finish pending compression work.
+     */
+    public void close() {
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * All rotated segments (compressed or not), oldest first.
+     */
+    public File[] listSegments() {
+        File[] segments = directory.listFiles((dir, name) -> isSegment(name));
+        if (segments == null) return new File[0];
+        Arrays.sort(segments, segmentOrder());
+        return segments;
+    }
+
+    /**
+     * Whether {@code name} is a rotated segment of this log, compressed or not.
+     */
+    public boolean isSegment(String name) {
+        return name.startsWith(baseName + "-")
+                && (name.endsWith(extension) || name.endsWith(extension + ".gz"));
+    }
+
+    /**
+     * Orders segment files oldest first by the UTC timestamp and collision
+     * counter embedded in their names.
+     */
+    public Comparator<File> segmentOrder() {
+        return Comparator.comparing((File f) -> segmentStamp(f.getName()))
+                .thenComparingInt(f -> segmentCounter(f.getName()));
+    }
+
+    /** "panel-audit-20250101-000000.2.log.gz" -> "20250101-000000.2" */
+    private String segmentId(String name) {
+        String id = name.substring(baseName.length() + 1);
+        if (id.endsWith(".gz")) {
+            id = id.substring(0, id.length() - 3);
+        }
+        return id.substring(0, id.length() - extension.length());
+    }
+
+    private String segmentStamp(String name) {
+        String id = segmentId(name);
+        int dot = id.indexOf('.');
+        return dot >= 0 ? id.substring(0, dot) : id;
+    }
+
+    private int segmentCounter(String name) {
+        String id = segmentId(name);
+        int dot = id.indexOf('.');
+        if (dot < 0) return 0;
+        try {
+            return Integer.parseInt(id.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private File segmentFile(long rotatedAt) {
+        String stamp = SEGMENT_STAMP.format(Instant.ofEpochMilli(rotatedAt));
+        File segment = new File(directory, baseName + "-" + stamp + extension);
+        for (int n = 1; segment.exists() || new File(directory, segment.getName() + ".gz").exists(); n++) {
+            segment = new File(directory, baseName + "-" + stamp + "." + n + extension);
+        }
+        return segment;
+    }
+
+    private void compress(File segment) {
+        File target = new File(directory, segment.getName() + ".gz");
+        File temp = new File(directory, segment.getName() + ".gz.tmp");
+        try (InputStream in = new FileInputStream(segment);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            logger.warning("Failed to compress audit segment " + segment.getName() + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment.toPath());
+        } catch (IOException e) {
+            logger.warning("Failed to finalize audit segment " + segment.getName() + ": " + e.getMessage());
+        }
+        applyRetention();
+    }
+
+    private void applyRetention() {
+        if (retainArchives <= 0) return;
+
+        File[] archives = directory.listFiles((dir, name) -> isSegment(name) && name.endsWith(extension + ".gz"));
+        if (archives == null || archives.length <= retainArchives) return;
+
+        Arrays.sort(archives, segmentOrder());
+        for (int i = 0; i < archives.length - retainArchives; i++) {
+            if (!archives[i].delete()) {
+                logger.warning("Failed to delete old audit archive " + archives[i].getName());
+            }
+            AuditIndex.indexFor(archives[i]).delete();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.minepanel.bridge.audit;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-size binary index kept next to each audit segment as {@code <segment>.idx}.
+ * One {@value #RECORD_SIZE}-byte record per log line, in write order:
+ *
+ * <pre>
+ *   long timestamp   epoch millis, non-decreasing across all segments
+ *   long offset      byte offset of the line in the uncompressed segment
+ *   int  length      line length in bytes, including the terminator
+ *   int  actorHash   {@link #hash} of the actor
+ *   int  actionHash  {@link #hash} of the action
+ *   int  reserved
+ * </pre>
+ *
+ * Because timestamps never decrease, readers binary-search a segment's index by
+ * time and filter by actor/action without touching the log itself. An instance
+ * is owned by the audit writer thread.
+ */
+public class AuditIndex {
+
+    public static final int RECORD_SIZE = 32;
+    public static final String SUFFIX = ".idx";
+
+    private final File logFile;
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private long lastTimestamp;
+
+    public AuditIndex(File logFile) {
+        this.logFile = logFile;
+    }
+
+    public static File indexFor(File segment) {
+        String name = segment.getName();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return new File(segment.getParentFile(), name + SUFFIX);
+    }
+
+    public static int hash(String value) {
+        return value.hashCode();
+    }
+
+    /**
+     * Open the index for the active log, first indexing any lines the log has
+     * beyond the last indexed one (e.g. after a crash or an upgrade). An index
+     * that points past the end of the log belongs to another file and is rebuilt.
+     */
+    public void open() throws IOException {
+        File indexFile = indexFor(logFile);
+        long indexedEnd = 0;
+
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long records = channel.size() / RECORD_SIZE;
+            // Drop a torn trailing record
+            channel.truncate(records * RECORD_SIZE);
+            if (records > 0) {
+                ByteBuffer last = ByteBuffer.allocate(RECORD_SIZE);
+                channel.read(last, (records - 1) * RECORD_SIZE);
+                last.flip();
+                lastTimestamp = Math.max(lastTimestamp, last.getLong());
+                indexedEnd = last.getLong() + last.getInt();
+            }
+            if (indexedEnd > logFile.length()) {
+                channel.truncate(0);
+                indexedEnd = 0;
+            }
+        }
+
+        fileOut = new FileOutputStream(indexFile, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, 16 * 1024));
+
+        if (logFile.length() > indexedEnd) {
+            indexTail(indexedEnd);
+            flush(false);
+        }
+    }
+
+    /**
+     * Append a record for a line just written to the log.
+     */
+    public void append(AuditRecord record, long offset, int length) throws IOException {
+        long timestamp = Math.max(record.timestamp(), lastTimestamp);
+        lastTimestamp = timestamp;
+        out.writeLong(timestamp);
+        out.writeLong(offset);
+        out.writeInt(length);
+        out.writeInt(hash(record.actor()));
+        out.writeInt(hash(record.action()));
+        out.writeInt(0);
+    }
+
+    /**
+     * Flush after the log itself has been flushed, so an index record never
+     * points at bytes that are not yet in the log.
+     */
+    public void flush(boolean fsync) throws IOException {
+        out.flush();
+        if (fsync) {
+            fileOut.getChannel().force(false);
+        }
+    }
+
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void indexTail(long from) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(logFile), 64 * 1024)) {
+            in.skipNBytes(from);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long offset = from;
+            int b;
+            while ((b = in.read()) != -1) {
+                line.write(b);
+                if (b != '\n') continue;
+
+                AuditRecord record = AuditRecord.parse(line.toString(StandardCharsets.UTF_8));
+                if (record != null) {
+                    append(record, offset, line.size());
+                }
+                offset += line.size();
+                line.reset();
+            }
+        }
+    }
+}
@@ -1,50 +1,372 @@
 package com.minepanel.bridge.audit;
 
+import com.minepanel.bridge.config.PluginConfig;
+
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Simple file-based audit logger for the plugin.
+ * Asynchronous file-based audit logger for the plugin.
  * Records every action performed via the panel API.
+ *
+ * Callers only enqueue an entry; a single writer thread drains the queue in
+ * batches and flushes (or fsyncs) once per batch, so HTTP threads never wait
+ * on disk I/O. The writer also rotates the file by size and by UTC day;
+ * rotated segments are compressed in the background by {@link AuditArchiver}.
+ * Every line is indexed in {@link AuditIndex} for {@link AuditQuery}.
  */
 public class AuditLogger {
 
-    private PrintWriter writer;
+    /**
+     * What the writer does after each batch.
+     */
+    public enum Durability {
+        /** Flush to the OS page cache. */
+        FLUSH,
+        /** Flush and force the data to the storage device. */
+        FSYNC;
+
+        /** The config value ("flush" or "fsync"), defaulting to FLUSH. */
+        public static Durability parse(String value) {
+            return parseEnum(Durability.class, value, FLUSH);
+        }
+    }
+
+    /**
+     * What {@link #log} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for the writer to make room. No entry is lost. */
+        BLOCK,
+        /** Discard the new entry and count it as dropped. */
+        DROP;
+
+        /** The config value ("block" or "drop"), defaulting to BLOCK. */
+        public static OverflowPolicy parse(String value) {
+            return parseEnum(OverflowPolicy.class, value, BLOCK);
+        }
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long DROP_WARN_INTERVAL_MS = 10_000;
+    private static final long REOPEN_INTERVAL_MS = 10_000;
+
+    private final Logger logger;
+    private final Durability durability;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long rotateMaxBytes;
+    private final boolean rotateDaily;
+    private final AuditArchiver archiver;
+    private final AuditIndex index;
+
+    private final ConcurrentLinkedQueue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final int capacity;
+    private final Semaphore slots;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    /** Whether the log file is open for the writer; read by {@link #log} to skip entries that cannot be written. */
+    private volatile boolean opened;
+
+    private File logFile;
+    private FileOutputStream fileOut;
+    private OutputStream out;
+    private long currentSize;
+    private LocalDate currentDay;
+    /** Size at which the next size-based rotation is attempted; moved past a failed rotation. */
+    private long rotateAtBytes;
+
+    public AuditLogger(File dataFolder, PluginConfig config, Logger logger) {
+        this.logger = logger;
+        this.durability = Durability.parse(config.getAuditDurability());
+        this.overflowPolicy = OverflowPolicy.parse(config.getAuditOverflowPolicy());
+        this.batchSize = Math.max(1, config.getAuditBatchSize());
+        this.capacity = Math.max(1, config.getAuditQueueCapacity());
+        this.slots = new Semaphore(capacity);
+        this.rotateMaxBytes = config.getAuditRotateMaxBytes();
+        this.rotateAtBytes = rotateMaxBytes;
+        this.rotateDaily = config.isAuditRotateDaily();
+
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+        logFile = new File(dataFolder, config.getLogFile());
+        archiver = new AuditArchiver(logFile, config.getAuditRetainArchives(), logger);
+        archiver.recover();
+        index = new AuditIndex(logFile);
 
-    public AuditLogger(File dataFolder, String logFileName) {
         try {
-            if (!dataFolder.exists()) {
-                dataFolder.mkdirs();
+            open();
+            if (logFile.length() > 0) {
+                currentDay = dayOf(logFile.lastModified());
             }
-            File logFile = new File(dataFolder, logFileName);
-            writer = new PrintWriter(new BufferedWriter(new FileWriter(logFile, true)), true);
         } catch (IOException e) {
             e.printStackTrace();
         }
+
+        writerThread = new Thread(this::runWriter, "MinePanel-Audit");
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
     /**
-     * Log an audit entry.
+     * Log an audit entry. Never touches the disk; the entry is written by the
+     * writer thread shortly after.
      *
      * @param actor    The panel user who performed the action (from X-Panel-Actor header)
      * @param endpoint The API endpoint called
      * @param action   A human-readable description of the action
      * @param payload  Summarized payload (no sensitive data)
      */
-    public synchronized void log(String actor, String endpoint, String action, String payload) {
-        if (writer == null) return;
+    public void log(String actor, String endpoint, String action, String payload) {
+        if (!opened || !running) return;
+
+        if (!slots.tryAcquire()) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                dropped.increment();
+                return;
+            }
+            slots.acquireUninterruptibly();
+            if (!running) {
+                // Woken by close(); the writer may already be gone. Pass the permit on to the next waiter
+                slots.release();
+                return;
+            }
+        }
+
+        queue.offer(new AuditRecord(System.currentTimeMillis(), actor, endpoint, action, payload));
+        enqueued.increment();
+        LockSupport.unpark(writerThread);
+    }
+
+    /** Entries waiting to be written. */
+    public int getQueued() {
+        return capacity - slots.availablePermits();
+    }
+
+    public long getEnqueued() {
+        return enqueued.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
 
-        String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
-        String entry = String.format("[%s] actor=%s endpoint=%s action=%s payload=%s",
-                timestamp, actor != null ? actor : "unknown", endpoint, action,
-                payload != null ? payload : "");
-        writer.println(entry);
+    /** Entries in batches that could not be written or flushed. */
+    public long getFailed() {
+        return failed.sum();
     }
 
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Stop accepting entries, wait for the writer to drain the queue, close the
+     * file and finish any pending compression. Callers blocked on a full queue
+     * return without logging.
+     */
     public void close() {
-        if (writer != null) {
-            writer.close();
+        running = false;
+        slots.release(capacity);
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        archiver.close();
+    }
+
+    public File getLogFile() {
+        return logFile;
+    }
+
+    public AuditArchiver getArchiver() {
+        return archiver;
+    }
+
+    private void open() throws IOException {
+        fileOut = new FileOutputStream(logFile, true);
+        out = new BufferedOutputStream(fileOut, 64 * 1024);
+        currentSize = logFile.length();
+        index.open();
+        opened = true;
+    }
+
+    /**
+     * Rotate before writing {@code length} more bytes if the active file would
+     * exceed the size limit or the entry belongs to a new UTC day.
+     *
+     * If the segment cannot be moved aside (e.g. the file is locked), entries
+     * keep going to the active file and rotation is not tried again until the
+     * next boundary: another {@code auditRotateMaxBytes} written or the next day.
+     */
+    private void rotateIfNeeded(long timestamp, int length) throws IOException {
+        LocalDate day = dayOf(timestamp);
+        if (currentDay == null) {
+            currentDay = day;
+        }
+        boolean sizeExceeded = rotateMaxBytes > 0 && currentSize > 0 && currentSize + length > rotateAtBytes;
+        boolean dayChanged = rotateDaily && currentSize > 0 && !day.equals(currentDay);
+        if (!sizeExceeded && !dayChanged) return;
+
+        flush();
+        out.close();
+        index.close();
+        boolean rotated = false;
+        try {
+            archiver.rotate(logFile, timestamp);
+            rotated = true;
+        } catch (IOException e) {
+            logger.warning("Failed to rotate audit log " + logFile.getName()
+                    + ", appending to it until the next size or day boundary: " + e.getMessage());
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            // Entries are skipped until the writer manages to reopen the file
+            opened = false;
+            throw e;
+        }
+        currentDay = day;
+        rotateAtBytes = rotated ? rotateMaxBytes : currentSize + rotateMaxBytes;
+    }
+
+    private static LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private void runWriter() {
+        try {
+            writeLoop();
+        } finally {
+            if (running) {
+                // Only an Error gets here; stop accepting entries so BLOCK callers are not left waiting
+                running = false;
+                slots.release(capacity);
+                logger.severe("Audit writer stopped unexpectedly, audit logging is disabled");
+            }
+        }
+    }
+
+    private void writeLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long lastDropped = 0;
+        long lastDropWarn = 0;
+        long nextReopen = 0;
+
+        while (running || !queue.isEmpty()) {
+            if (!opened && running && System.currentTimeMillis() >= nextReopen) {
+                nextReopen = System.currentTimeMillis() + REOPEN_INTERVAL_MS;
+                try {
+                    open();
+                    logger.info("Reopened audit log " + logFile.getName());
+                } catch (IOException e) {
+                    logger.warning("Failed to open audit log " + logFile.getName() + ": " + e.getMessage());
+                }
+            }
+
+            AuditRecord entry = queue.poll();
+            if (entry == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            int count = 0;
+            try {
+                do {
+                    count++;
+                    format(line, entry);
+                    byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    rotateIfNeeded(entry.timestamp(), bytes.length);
+                    long offset = currentSize;
+                    out.write(bytes);
+                    currentSize += bytes.length;
+                    index.append(entry, offset, bytes.length);
+                } while (count < batchSize && (entry = queue.poll()) != null);
+
+                // Group commit: one flush (and optional fsync) per batch
+                flush();
+                written.add(count);
+            } catch (IOException e) {
+                failed.add(count);
+                logger.warning("Failed to write " + count + " audit entries: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // Keep the writer alive: a dead writer would leave BLOCK callers waiting on a full queue
+                failed.add(count);
+                logger.log(Level.SEVERE, "Failed to write " + count + " audit entries", e);
+            } finally {
+                slots.release(count);
+                batches.increment();
+            }
+
+            long droppedNow = dropped.sum();
+            long now = System.currentTimeMillis();
+            if (droppedNow != lastDropped && now - lastDropWarn >= DROP_WARN_INTERVAL_MS) {
+                logger.warning("Audit queue full: dropped " + (droppedNow - lastDropped)
+                        + " entries (" + droppedNow + " total)");
+                lastDropped = droppedNow;
+                lastDropWarn = now;
+            }
+        }
+
+        try {
+            if (opened) {
+                opened = false;
+                out.close();
+                index.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flush the log, then its index, so index records never run ahead of the log.
+     */
+    private void flush() throws IOException {
+        boolean fsync = durability == Durability.FSYNC;
+        out.flush();
+        if (fsync) {
+            fileOut.getChannel().force(false);
         }
+        index.flush(fsync);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return fallback;
+        }
+    }
+
+    private static void format(StringBuilder line, AuditRecord entry) {
+        line.setLength(0);
+        entry.format(line);
+        line.append(System.lineSeparator());
     }
 }
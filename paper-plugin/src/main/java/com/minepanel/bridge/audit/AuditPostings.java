@@ -0,0 +1,114 @@
+package com.minepanel.bridge.audit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Record numbers of each segment's index grouped by actor hash and by action
+ * hash, so a filtered search seeks to the matching records instead of reading
+ * every index record in its time range.
+ *
+ * Built from an index in one pass and kept for the most recently searched
+ * segments. Index files are append-only, so the active segment's lists are
+ * extended with the records added since the last search; a file is told apart
+ * from a later one with the same name (after rotation) by its file key.
+ */
+final class AuditPostings {
+
+    private static final int MAX_SEGMENTS = 8;
+
+    /** Field offsets of the hashes within an index record. */
+    static final int ACTOR = 20;
+    static final int ACTION = 24;
+
+    /**
+     * The first {@code count} entries of {@code records}, ascending. Safe to
+     * read without locking: entries below {@code count} are never rewritten.
+     */
+    record Postings(int[] records, int count) {
+
+        static final Postings EMPTY = new Postings(new int[0], 0);
+
+        /** Position of the last entry below {@code bound}, or -1. */
+        int lastBelow(long bound) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (records[mid] < bound) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo - 1;
+        }
+    }
+
+    private record Key(String path, Object fileKey) {}
+
+    /** Ascending record numbers for one hash; grows by copying, so old arrays stay valid for readers. */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /** Per-hash lists for one index file. */
+    private static final class Segment {
+        private final Map<Integer, IntList> actors = new HashMap<>();
+        private final Map<Integer, IntList> actions = new HashMap<>();
+        private long indexed;
+
+        synchronized Postings lookup(ByteBuffer index, long records, int field, int hash) {
+            if (records < indexed) {
+                // Not the file these lists were built from
+                actors.clear();
+                actions.clear();
+                indexed = 0;
+            }
+            for (long i = indexed; i < records; i++) {
+                int base = (int) (i * AuditIndex.RECORD_SIZE);
+                actors.computeIfAbsent(index.getInt(base + ACTOR), h -> new IntList()).add((int) i);
+                actions.computeIfAbsent(index.getInt(base + ACTION), h -> new IntList()).add((int) i);
+            }
+            indexed = records;
+
+            IntList list = (field == ACTOR ? actors : actions).get(hash);
+            return list == null ? Postings.EMPTY : new Postings(list.values, list.size);
+        }
+    }
+
+    private final Map<Key, Segment> segments = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Segment> eldest) {
+            return size() > MAX_SEGMENTS;
+        }
+    };
+
+    /**
+     * Records of {@code indexFile} (mapped as {@code index}, {@code records}
+     * long) whose actor or action hash, per {@code field}, equals {@code hash}.
+     */
+    Postings lookup(File indexFile, ByteBuffer index, long records, int field, int hash) throws IOException {
+        Object fileKey = Files.readAttributes(indexFile.toPath(), BasicFileAttributes.class).fileKey();
+        Key key = new Key(indexFile.getPath(), fileKey);
+        Segment segment;
+        synchronized (segments) {
+            segment = segments.computeIfAbsent(key, k -> new Segment());
+        }
+        return segment.lookup(index, records, field, hash);
+    }
+}
@@ -0,0 +1,304 @@
+package com.minepanel.bridge.audit;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Paginated, newest-first search over the active audit log and its rotated
+ * segments using their {@link AuditIndex} files. Segments outside the time
+ * range are skipped from their first/last index record, the range inside a
+ * segment is found by binary search, and actor/action filters go through
+ * {@link AuditPostings} so only matching index records are visited. Only
+ * matching lines are read from the logs.
+ *
+ * Index records carry hashes of the actor and action, so candidates are
+ * checked against the actual line; the scan continues past collisions until
+ * the page is full, so a page is only short when it is the last one.
+ *
+ * Pages are linked by a cursor {@code <timestamp>:<skip>}: continue with entries
+ * at or before that timestamp, skipping the first {@code skip} index matches that
+ * share it. The cursor stays valid across rotations because it does not name a file.
+ */
+public class AuditQuery {
+
+    /**
+     * Filter and page size. Null filters match everything.
+     */
+    public record Criteria(String actor, String action, long from, long to, int limit, String cursor) {}
+
+    /**
+     * One page of results, newest first; {@code nextCursor} is null on the last page.
+     */
+    public record Page(List<AuditRecord> entries, String nextCursor) {}
+
+    /**
+     * An index record that passed the hash filters. {@code ordinal} counts the
+     * index matches with this timestamp up to and including this one (those
+     * skipped by the cursor included), and is the skip for a cursor after it.
+     */
+    private record Match(File segment, long timestamp, long offset, int length, int ordinal) {}
+
+    private final AuditLogger auditLogger;
+    private final AuditPostings postings = new AuditPostings();
+
+    public AuditQuery(AuditLogger auditLogger) {
+        this.auditLogger = auditLogger;
+    }
+
+    public Page search(Criteria criteria) throws IOException {
+        long to = criteria.to();
+        int skip = 0;
+        if (criteria.cursor() != null) {
+            String[] parts = criteria.cursor().split(":", 2);
+            try {
+                to = Math.min(to, Long.parseLong(parts[0]));
+                skip = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        Scan scan = new Scan(segmentsNewestFirst(), criteria, to, skip);
+        List<AuditRecord> entries = new ArrayList<>(criteria.limit());
+        Match last = null;
+        boolean more = false;
+        List<Match> batch = new ArrayList<>();
+        while (!more) {
+            // One more than still needed, to know whether another page exists
+            batch.clear();
+            scan.next(criteria.limit() + 1 - entries.size(), batch);
+            if (batch.isEmpty()) break;
+
+            Map<Match, AuditRecord> records = readLines(batch);
+            for (Match match : batch) {
+                AuditRecord record = records.get(match);
+                // Index hashes can collide; confirm against the actual line
+                if (record == null) continue;
+                if (criteria.actor() != null && !criteria.actor().equals(record.actor())) continue;
+                if (criteria.action() != null && !criteria.action().equals(record.action())) continue;
+                if (entries.size() == criteria.limit()) {
+                    more = true;
+                    break;
+                }
+                entries.add(record);
+                last = match;
+            }
+        }
+
+        String nextCursor = more ? last.timestamp() + ":" + last.ordinal() : null;
+        return new Page(entries, nextCursor);
+    }
+
+    /**
+     * Walks the index matches of all segments newest first, a batch at a time,
+     * resuming where the previous batch stopped.
+     */
+    private final class Scan {
+
+        private final List<File> segments;
+        private final long from;
+        private final long to;
+        private final Integer actorHash;
+        private final Integer actionHash;
+        private final long cursorTs;
+        private int skip;
+
+        private int segment;
+        /** Only records below this number are left in the current segment; -1 before it is opened. */
+        private long bound = -1;
+        private long runTs = Long.MIN_VALUE;
+        private int runCount;
+
+        Scan(List<File> segments, Criteria criteria, long to, int skip) {
+            this.segments = segments;
+            this.from = criteria.from();
+            this.to = to;
+            this.actorHash = criteria.actor() != null ? AuditIndex.hash(criteria.actor()) : null;
+            this.actionHash = criteria.action() != null ? AuditIndex.hash(criteria.action()) : null;
+            this.cursorTs = to;
+            this.skip = skip;
+        }
+
+        /**
+         * Add up to {@code wanted} further matches; adds none once every segment is done.
+         */
+        void next(int wanted, List<Match> matches) throws IOException {
+            while (matches.size() < wanted && segment < segments.size()) {
+                if (!scanSegment(segments.get(segment), wanted, matches)) {
+                    segment++;
+                    bound = -1;
+                }
+            }
+        }
+
+        /**
+         * Continue in one segment's index, backwards from {@link #bound}.
+         *
+         * @return true if the segment may have more matches
+         */
+        private boolean scanSegment(File segmentFile, int wanted, List<Match> matches) throws IOException {
+            File indexFile = AuditIndex.indexFor(segmentFile);
+            if (!indexFile.exists()) return false;
+
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                long records = channel.size() / AuditIndex.RECORD_SIZE;
+                if (records == 0) return false;
+                MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, records * AuditIndex.RECORD_SIZE);
+
+                if (bound < 0) {
+                    // Whole segment outside the range
+                    if (timestampAt(index, 0) > to || timestampAt(index, records - 1) < from) return false;
+                    bound = upperBound(index, records, to);
+                }
+
+                if (actorHash == null && actionHash == null) {
+                    for (long i = bound - 1; i >= 0; i--) {
+                        bound = i;
+                        if (!visit(segmentFile, index, i, matches)) return false;
+                        if (matches.size() >= wanted) return i > 0;
+                    }
+                    return false;
+                }
+
+                // Seek through the postings of one filter, check the other in the record
+                AuditPostings.Postings list = actorHash != null
+                        ? postings.lookup(indexFile, index, records, AuditPostings.ACTOR, actorHash)
+                        : postings.lookup(indexFile, index, records, AuditPostings.ACTION, actionHash);
+                for (int p = list.lastBelow(bound); p >= 0; p--) {
+                    long i = list.records()[p];
+                    bound = i;
+                    if (actorHash != null && actionHash != null
+                            && index.getInt((int) (i * AuditIndex.RECORD_SIZE) + AuditPostings.ACTION) != actionHash) {
+                        continue;
+                    }
+                    if (!visit(segmentFile, index, i, matches)) return false;
+                    if (matches.size() >= wanted) return p > 0;
+                }
+                return false;
+            } catch (NoSuchFileException e) {
+                // Segment removed by retention while we were scanning
+                return false;
+            }
+        }
+
+        /**
+         * Take index record {@code i}, which passed the hash filters.
+         *
+         * @return false once records are older than {@code from}
+         */
+        private boolean visit(File segmentFile, ByteBuffer index, long i, List<Match> matches) {
+            int base = (int) (i * AuditIndex.RECORD_SIZE);
+            long timestamp = index.getLong(base);
+            if (timestamp < from) return false;
+            if (timestamp != runTs) {
+                runTs = timestamp;
+                runCount = 0;
+            }
+            runCount++;
+            if (timestamp == cursorTs && skip > 0) {
+                skip--;
+                return true;
+            }
+            matches.add(new Match(segmentFile, timestamp, index.getLong(base + 8), index.getInt(base + 16), runCount));
+            return true;
+        }
+    }
+
+    /** Number of records with timestamp <= {@code to}. */
+    private static long upperBound(ByteBuffer index, long records, long to) {
+        long lo = 0, hi = records;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestampAt(index, mid) <= to) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long timestampAt(ByteBuffer index, long record) {
+        return index.getLong((int) (record * AuditIndex.RECORD_SIZE));
+    }
+
+    /**
+     * Active log first, then rotated segments newest first. A segment caught
+     * between compression and deletion of its plain file is listed once.
+     */
+    private List<File> segmentsNewestFirst() {
+        List<File> segments = new ArrayList<>();
+        segments.add(auditLogger.getLogFile());
+
+        File[] rotated = auditLogger.getArchiver().listSegments();
+        Set<String> seen = new HashSet<>();
+        for (int i = rotated.length - 1; i >= 0; i--) {
+            if (seen.add(AuditIndex.indexFor(rotated[i]).getName())) {
+                segments.add(rotated[i]);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Read the matched lines, grouped per segment so each compressed segment is
+     * decompressed at most once. Lines that could not be read are missing from the result.
+     */
+    private Map<Match, AuditRecord> readLines(List<Match> matches) throws IOException {
+        Map<File, List<Match>> bySegment = new LinkedHashMap<>();
+        for (Match match : matches) {
+            bySegment.computeIfAbsent(match.segment(), k -> new ArrayList<>()).add(match);
+        }
+
+        Map<Match, AuditRecord> records = new HashMap<>();
+        for (Map.Entry<File, List<Match>> entry : bySegment.entrySet()) {
+            List<Match> ordered = new ArrayList<>(entry.getValue());
+            ordered.sort(Comparator.comparingLong(Match::offset));
+            readSegment(entry.getKey(), ordered, records);
+        }
+        return records;
+    }
+
+    private void readSegment(File segment, List<Match> ordered, Map<Match, AuditRecord> out) throws IOException {
+        File plain = segment.getName().endsWith(".gz")
+                ? new File(segment.getParentFile(), segment.getName().substring(0, segment.getName().length() - 3))
+                : segment;
+        File compressed = new File(plain.getParentFile(), plain.getName() + ".gz");
+
+        if (plain.exists()) {
+            try (FileChannel channel = FileChannel.open(plain.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (Match match : ordered) {
+                    if (match.offset() + match.length() > size) continue;
+                    ByteBuffer line = ByteBuffer.allocate(match.length());
+                    channel.read(line, match.offset());
+                    out.put(match, AuditRecord.parse(new String(line.array(), StandardCharsets.UTF_8)));
+                }
+                return;
+            } catch (NoSuchFileException e) {
+                // Compressed and deleted in the meantime; fall through to the archive
+            }
+        }
+
+        if (!compressed.exists()) return;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(compressed)), 64 * 1024)) {
+            long position = 0;
+            for (Match match : ordered) {
+                in.skipNBytes(match.offset() - position);
+                byte[] line = in.readNBytes(match.length());
+                position = match.offset() + line.length;
+                if (line.length < match.length()) break;
+                out.put(match, AuditRecord.parse(new String(line, StandardCharsets.UTF_8)));
+            }
+        } catch (EOFException e) {
+            // Truncated archive; return what was read
+        }
+    }
+}
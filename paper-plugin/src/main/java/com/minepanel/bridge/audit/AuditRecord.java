@@ -0,0 +1,108 @@
+package com.minepanel.bridge.audit;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One audit log entry and its single-line text form:
+ * {@code [<ISO instant>] actor=<actor> endpoint=<endpoint> action=<action> payload=<payload>}
+ *
+ * Field values are escaped so that user-supplied text (command arguments,
+ * actor names) can neither start a new line nor forge a field: backslash, CR
+ * and LF become {@code \\}, {@code \r} and {@code \n}, and spaces in every
+ * field but the last become {@code \s}, so a separator is never matched
+ * inside a value.
+ */
+public record AuditRecord(long timestamp, String actor, String endpoint, String action, String payload) {
+
+    private static final String ENDPOINT = " endpoint=";
+    private static final String ACTION = " action=";
+    private static final String PAYLOAD = " payload=";
+
+    public AuditRecord {
+        actor = actor != null ? actor : "unknown";
+        endpoint = endpoint != null ? endpoint : "";
+        action = action != null ? action : "";
+        payload = payload != null ? payload : "";
+    }
+
+    /**
+     * Append this entry's line (without line terminator) to {@code line}.
+     */
+    public void format(StringBuilder line) {
+        line.append('[');
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(timestamp), line);
+        line.append("] actor=");
+        escape(line, actor, true);
+        line.append(ENDPOINT);
+        escape(line, endpoint, true);
+        line.append(ACTION);
+        escape(line, action, true);
+        line.append(PAYLOAD);
+        escape(line, payload, false);
+    }
+
+    /**
+     * Parse a line written by {@link #format}.
+     *
+     * @return the record, or null if the line is not a valid audit entry
+     */
+    public static AuditRecord parse(String line) {
+        line = line.strip();
+        int close = line.indexOf("] actor=");
+        if (!line.startsWith("[") || close < 0) return null;
+
+        int endpoint = line.indexOf(ENDPOINT, close);
+        int action = endpoint < 0 ? -1 : line.indexOf(ACTION, endpoint + ENDPOINT.length());
+        int payload = action < 0 ? -1 : line.indexOf(PAYLOAD, action + ACTION.length());
+        if (payload < 0) return null;
+
+        long timestamp;
+        try {
+            timestamp = Instant.parse(line.substring(1, close)).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        return new AuditRecord(
+                timestamp,
+                unescape(line.substring(close + "] actor=".length(), endpoint)),
+                unescape(line.substring(endpoint + ENDPOINT.length(), action)),
+                unescape(line.substring(action + ACTION.length(), payload)),
+                unescape(line.substring(payload + PAYLOAD.length())));
+    }
+
+    private static void escape(StringBuilder line, String value, boolean spaces) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case ' ' -> line.append(spaces ? "\\s" : " ");
+                default -> line.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 's' -> sb.append(' ');
+                default -> sb.append(next);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.minepanel.bridge.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Command allowlist compiled once into a case-insensitive character trie.
+ *
+ * An entry such as {@code "whitelist add"} matches whole words only: it allows
+ * {@code "whitelist add Steve"} but not {@code "whitelist addx"}. Runs of
+ * whitespace in the command are treated as a single separator. An entry may
+ * carry a regex that the remaining arguments must match in full.
+ *
+ * Entries and commands are case-folded the same way, one char at a time with
+ * {@link Character#toLowerCase(char)}, so both sides always agree.
+ *
+ * Lookups walk the command once, take O(command length) and allocate nothing
+ * unless an argument pattern has to be evaluated.
+ */
+public final class CommandAllowlist {
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        boolean terminal;
+        Pattern argsPattern;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node getOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            Node node = new Node();
+            newKeys[at] = c;
+            newChildren[at] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    private final Node root = new Node();
+
+    private CommandAllowlist() {
+    }
+
+    /**
+     * Compile the allowlist. A command whose argument pattern is not a valid
+     * regex is logged and left out, so it is denied rather than allowed
+     * without the restriction.
+     *
+     * @param commands    Allowed commands, optionally with sub-commands ("whitelist add")
+     * @param argPatterns Optional regex per allowed command that its arguments must match
+     */
+    public static CommandAllowlist compile(List<String> commands, Map<String, String> argPatterns, Logger logger) {
+        CommandAllowlist allowlist = new CommandAllowlist();
+        for (String command : commands) {
+            String normalized = normalize(command);
+            if (normalized.isEmpty()) continue;
+
+            Node node = allowlist.root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.getOrAdd(normalized.charAt(i));
+            }
+            node.terminal = true;
+        }
+
+        for (Map.Entry<String, String> entry : argPatterns.entrySet()) {
+            Node node = allowlist.find(normalize(entry.getKey()));
+            if (node == null || !node.terminal) continue;
+            try {
+                node.argsPattern = Pattern.compile(entry.getValue());
+            } catch (PatternSyntaxException e) {
+                node.terminal = false;
+                logger.warning("Invalid argument pattern for allowed command '" + entry.getKey() + "' ("
+                        + e.getDescription() + "); the command is denied until the pattern is fixed");
+            }
+        }
+        return allowlist;
+    }
+
+    /**
+     * Check if a command (with optional sub-command and arguments) is allowed.
+     */
+    public boolean isAllowed(String command) {
+        int length = command.length();
+        int i = skipWhitespace(command, 0);
+        Node node = root;
+
+        while (i < length) {
+            char c = command.charAt(i);
+            if (Character.isWhitespace(c)) {
+                node = node.child(' ');
+                i = skipWhitespace(command, i);
+            } else {
+                node = node.child(fold(c));
+                i++;
+            }
+            if (node == null) return false;
+
+            // A terminal only counts at a word boundary
+            if (node.terminal && (i == length || Character.isWhitespace(command.charAt(i)))) {
+                if (node.argsPattern == null) return true;
+                int argsStart = skipWhitespace(command, i);
+                int argsEnd = trimEnd(command, argsStart);
+                if (node.argsPattern.matcher(command.subSequence(argsStart, argsEnd)).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Node find(String normalized) {
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.child(normalized.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Case-fold an entry and collapse its whitespace exactly as {@link #isAllowed} walks a command.
+     */
+    private static String normalize(String command) {
+        StringBuilder normalized = new StringBuilder(command.length());
+        int i = skipWhitespace(command, 0);
+        while (i < command.length()) {
+            char c = command.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i = skipWhitespace(command, i);
+                if (i < command.length()) normalized.append(' ');
+            } else {
+                normalized.append(fold(c));
+                i++;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int trimEnd(String s, int start) {
+        int end = s.length();
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) end--;
+        return end;
+    }
+}
@@ -1,30 +1,128 @@
 package com.minepanel.bridge.config;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * Holds all configuration values loaded from config.yml.
  */
 public class PluginConfig {
 
+    /**
+     * How the HTTP server runs request handlers.
+     */
+    public enum ExecutorMode {
+        /** One virtual thread per request. */
+        VIRTUAL,
+        /** A fixed pool of platform threads. */
+        FIXED,
+        /** The JDK's single dispatcher thread (no executor). */
+        DEFAULT
+    }
+
     private final String bindAddress;
     private final int port;
     private final String sharedSecret;
     private final List<String> allowedCommands;
+    private final CommandAllowlist commandAllowlist;
     private final boolean enableInventoryView;
     private final boolean enableEnderChestView;
+    private final boolean enableOfflinePlayerView;
+    private final int offlinePlayerCacheSize;
     private final String logFile;
+    private final int snapshotIntervalTicks;
+    private final ExecutorMode httpExecutor;
+    private final int httpThreads;
+    private final int httpMaxConcurrent;
+    private final int httpMaxQueued;
+    private final long httpQueueTimeoutMs;
+    private final int httpRetryAfterSeconds;
+    private final boolean httpCompression;
+    private final int httpCompressionMinBytes;
+    private final int httpCompressionLevel;
+    private final int streamMaxClients;
+    private final double streamMoveThreshold;
+    private final int auditQueueCapacity;
+    private final int auditBatchSize;
+    private final String auditDurability;
+    private final String auditOverflowPolicy;
+    private final long auditRotateMaxBytes;
+    private final boolean auditRotateDaily;
+    private final int auditRetainArchives;
+    private final long mainThreadBudgetMicros;
+    private final int commandBatchMaxSize;
+    private final long commandBatchTimeoutMs;
+    private final long inventoryTrackIdleSeconds;
+    private final int itemCacheSize;
+    private final long whitelistReconcileSeconds;
+    private final int whitelistBulkMaxSize;
+    private final long whitelistBulkTimeoutMs;
+    private final int historySamples;
+    private final long historySampleIntervalTicks;
+    private final int historyMaxPlayers;
+    private final long historyRetainOfflineSeconds;
+    private final int consoleBufferLines;
+    private final long lagScanBudgetMicros;
+    private final int lagScanTopChunks;
+    private final long heatmapSampleIntervalTicks;
+    private final double heatmapHalfLifeMinutes;
+    private final int heatmapMaxCells;
 
-    public PluginConfig(FileConfiguration config) {
+    public PluginConfig(FileConfiguration config, Logger logger) {
         this.bindAddress = config.getString("bindAddress", "127.0.0.1");
         this.port = config.getInt("port", 8765);
         this.sharedSecret = config.getString("sharedSecret", "CHANGE-ME-TO-A-STRONG-SECRET");
         this.allowedCommands = config.getStringList("allowedCommands");
+        this.commandAllowlist = CommandAllowlist.compile(allowedCommands, readArgPatterns(config), logger);
         this.enableInventoryView = config.getBoolean("enableInventoryView", true);
         this.enableEnderChestView = config.getBoolean("enableEnderChestView", true);
+        this.enableOfflinePlayerView = config.getBoolean("enableOfflinePlayerView", true);
+        this.offlinePlayerCacheSize = Math.max(0, config.getInt("offlinePlayerCacheSize", 64));
         this.logFile = config.getString("logFile", "panel-audit.log");
+        this.snapshotIntervalTicks = config.getInt("snapshotIntervalTicks", 20);
+        this.httpExecutor = parseEnum(ExecutorMode.class,
+                config.getString("httpExecutor", "virtual"), ExecutorMode.VIRTUAL);
+        this.httpThreads = config.getInt("httpThreads", 8);
+        this.httpMaxConcurrent = config.getInt("httpMaxConcurrent", 32);
+        this.httpMaxQueued = config.getInt("httpMaxQueued", 64);
+        this.httpQueueTimeoutMs = config.getLong("httpQueueTimeoutMs", 2000);
+        this.httpRetryAfterSeconds = config.getInt("httpRetryAfterSeconds", 1);
+        this.httpCompression = config.getBoolean("httpCompression", true);
+        this.httpCompressionMinBytes = config.getInt("httpCompressionMinBytes", 1024);
+        this.httpCompressionLevel = Math.max(1, Math.min(9, config.getInt("httpCompressionLevel", 6)));
+        this.streamMaxClients = config.getInt("streamMaxClients", 16);
+        this.streamMoveThreshold = config.getDouble("streamMoveThreshold", 2.0);
+        this.auditQueueCapacity = config.getInt("auditQueueCapacity", 8192);
+        this.auditBatchSize = config.getInt("auditBatchSize", 256);
+        this.auditDurability = config.getString("auditDurability", "flush");
+        this.auditOverflowPolicy = config.getString("auditOverflowPolicy", "block");
+        this.auditRotateMaxBytes = config.getLong("auditRotateMaxBytes", 10L * 1024 * 1024);
+        this.auditRotateDaily = config.getBoolean("auditRotateDaily", true);
+        this.auditRetainArchives = config.getInt("auditRetainArchives", 30);
+        this.mainThreadBudgetMicros = config.getLong("mainThreadBudgetMicros", 5000);
+        this.commandBatchMaxSize = config.getInt("commandBatchMaxSize", 100);
+        this.commandBatchTimeoutMs = config.getLong("commandBatchTimeoutMs", 30000);
+        this.inventoryTrackIdleSeconds = config.getLong("inventoryTrackIdleSeconds", 300);
+        this.itemCacheSize = Math.max(0, config.getInt("itemCacheSize", 2048));
+        this.whitelistReconcileSeconds = config.getLong("whitelistReconcileSeconds", 300);
+        this.whitelistBulkMaxSize = config.getInt("whitelistBulkMaxSize", 10000);
+        this.whitelistBulkTimeoutMs = config.getLong("whitelistBulkTimeoutMs", 120000);
+        this.historySamples = Math.max(0, config.getInt("historySamples", 600));
+        this.historySampleIntervalTicks = config.getLong("historySampleIntervalTicks", 20);
+        this.historyMaxPlayers = config.getInt("historyMaxPlayers", 200);
+        this.historyRetainOfflineSeconds = config.getLong("historyRetainOfflineSeconds", 600);
+        this.consoleBufferLines = Math.max(0, Math.min(1 << 20, config.getInt("consoleBufferLines", 2048)));
+        this.lagScanBudgetMicros = config.getLong("lagScanBudgetMicros", 1000);
+        this.lagScanTopChunks = config.getInt("lagScanTopChunks", 20);
+        this.heatmapSampleIntervalTicks = Math.max(0, config.getLong("heatmapSampleIntervalTicks", 100));
+        this.heatmapHalfLifeMinutes = config.getDouble("heatmapHalfLifeMinutes", 30);
+        this.heatmapMaxCells = config.getInt("heatmapMaxCells", 65536);
     }
 
     public String getBindAddress() { return bindAddress; }
@@ -33,19 +131,74 @@ public class PluginConfig {
     public List<String> getAllowedCommands() { return allowedCommands; }
     public boolean isEnableInventoryView() { return enableInventoryView; }
     public boolean isEnableEnderChestView() { return enableEnderChestView; }
+    public boolean isEnableOfflinePlayerView() { return enableOfflinePlayerView; }
+    public int getOfflinePlayerCacheSize() { return offlinePlayerCacheSize; }
     public String getLogFile() { return logFile; }
+    public int getSnapshotIntervalTicks() { return snapshotIntervalTicks; }
+    public ExecutorMode getHttpExecutor() { return httpExecutor; }
+    public int getHttpThreads() { return httpThreads; }
+    public int getHttpMaxConcurrent() { return httpMaxConcurrent; }
+    public int getHttpMaxQueued() { return httpMaxQueued; }
+    public long getHttpQueueTimeoutMs() { return httpQueueTimeoutMs; }
+    public int getHttpRetryAfterSeconds() { return httpRetryAfterSeconds; }
+    public boolean isHttpCompression() { return httpCompression; }
+    public int getHttpCompressionMinBytes() { return httpCompressionMinBytes; }
+    public int getHttpCompressionLevel() { return httpCompressionLevel; }
+    public int getStreamMaxClients() { return streamMaxClients; }
+    public double getStreamMoveThreshold() { return streamMoveThreshold; }
+    public int getAuditQueueCapacity() { return auditQueueCapacity; }
+    public int getAuditBatchSize() { return auditBatchSize; }
+    public String getAuditDurability() { return auditDurability; }
+    public String getAuditOverflowPolicy() { return auditOverflowPolicy; }
+    public long getAuditRotateMaxBytes() { return auditRotateMaxBytes; }
+    public boolean isAuditRotateDaily() { return auditRotateDaily; }
+    public int getAuditRetainArchives() { return auditRetainArchives; }
+    public long getMainThreadBudgetMicros() { return mainThreadBudgetMicros; }
+    public int getCommandBatchMaxSize() { return commandBatchMaxSize; }
+    public long getCommandBatchTimeoutMs() { return commandBatchTimeoutMs; }
+    public long getInventoryTrackIdleSeconds() { return inventoryTrackIdleSeconds; }
+    public int getItemCacheSize() { return itemCacheSize; }
+    public long getWhitelistReconcileSeconds() { return whitelistReconcileSeconds; }
+    public int getWhitelistBulkMaxSize() { return whitelistBulkMaxSize; }
+    public long getWhitelistBulkTimeoutMs() { return whitelistBulkTimeoutMs; }
+    public int getHistorySamples() { return historySamples; }
+    public long getHistorySampleIntervalTicks() { return historySampleIntervalTicks; }
+    public int getHistoryMaxPlayers() { return historyMaxPlayers; }
+    public long getHistoryRetainOfflineSeconds() { return historyRetainOfflineSeconds; }
+    public int getConsoleBufferLines() { return consoleBufferLines; }
+    public long getLagScanBudgetMicros() { return lagScanBudgetMicros; }
+    public int getLagScanTopChunks() { return lagScanTopChunks; }
+    public long getHeatmapSampleIntervalTicks() { return heatmapSampleIntervalTicks; }
+    public double getHeatmapHalfLifeMinutes() { return heatmapHalfLifeMinutes; }
+    public int getHeatmapMaxCells() { return heatmapMaxCells; }
 
     /**
      * Check if a command (with optional sub-command) is allowed.
      * E.g. "whitelist add" or "kick".
      */
     public boolean isCommandAllowed(String command) {
-        String normalized = command.trim().toLowerCase();
-        for (String allowed : allowedCommands) {
-            if (normalized.startsWith(allowed.toLowerCase())) {
-                return true;
+        return commandAllowlist.isAllowed(command);
+    }
+
+    private static Map<String, String> readArgPatterns(FileConfiguration config) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("allowedCommandArgs");
+        if (section != null) {
+            for (String command : section.getKeys(false)) {
+                String pattern = section.getString(command);
+                if (pattern != null) {
+                    patterns.put(command, pattern);
+                }
             }
         }
-        return false;
+        return patterns;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.minepanel.bridge.console;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.regex.Pattern;
+
+/**
+ * Log4j appender on the root logger that copies every console line into a
+ * {@link ConsoleBuffer}. Runs on whichever thread logged the line, so it only
+ * formats the message and hands it to the lock-free buffer.
+ */
+public class ConsoleAppender extends AbstractAppender {
+
+    /** ANSI escape sequences and legacy section-sign color codes. */
+    private static final Pattern FORMATTING = Pattern.compile("\u001B\\[[;\\d]*[A-Za-z]|§[0-9A-FK-ORXa-fk-orx]");
+
+    private final ConsoleBuffer buffer;
+
+    private ConsoleAppender(ConsoleBuffer buffer) {
+        super("MinePanelConsole", null, null, true, Property.EMPTY_ARRAY);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create an appender for {@code buffer} and attach it to the root logger.
+     */
+    public static ConsoleAppender attach(ConsoleBuffer buffer) {
+        ConsoleAppender appender = new ConsoleAppender(buffer);
+        appender.start();
+        ((Logger) LogManager.getRootLogger()).addAppender(appender);
+        return appender;
+    }
+
+    public void detach() {
+        ((Logger) LogManager.getRootLogger()).removeAppender(this);
+        stop();
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String message = event.getMessage() != null ? event.getMessage().getFormattedMessage() : "";
+        Throwable thrown = event.getThrown();
+        if (thrown != null) {
+            StringWriter trace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(trace));
+            message = message + "\n" + trace;
+        }
+        if (message.indexOf('\u001B') >= 0 || message.indexOf('§') >= 0) {
+            message = FORMATTING.matcher(message).replaceAll("");
+        }
+        buffer.add(event.getTimeMillis(), event.getLevel().name(), event.getLoggerName(), message);
+    }
+}
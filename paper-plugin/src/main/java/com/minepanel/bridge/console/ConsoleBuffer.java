@@ -0,0 +1,150 @@
+package com.minepanel.bridge.console;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free ring of recent console lines for /api/console.
+ *
+ * Every line gets a sequence number from a single counter and is stored in
+ * slot {@code seq & mask}, overwriting the line {@code capacity} entries
+ * older. Logging threads never wait: adding a line is one increment, one array
+ * store and an unpark of any waiting stream readers. Readers walk forward from
+ * their cursor and notice lines that were overwritten under them by the
+ * sequence number stored in the slot. Memory is fixed at {@code capacity}
+ * lines of at most {@value #MAX_LINE_CHARS} characters.
+ */
+public class ConsoleBuffer {
+
+    /** Longer lines (mostly stack traces) are cut to this many characters. */
+    public static final int MAX_LINE_CHARS = 2048;
+
+    public record Line(long seq, long time, String level, String logger, String message) {}
+
+    /**
+     * Lines read after a cursor. {@code cursor} is the sequence to pass as
+     * {@code after} next time; {@code dropped} counts lines that were
+     * overwritten before they could be read.
+     */
+    public record Batch(List<Line> lines, long cursor, long dropped) {}
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Line> slots;
+    private final AtomicLong next = new AtomicLong();
+    private final List<Thread> waiters = new CopyOnWriteArrayList<>();
+    private final int maxWaiters;
+    private volatile boolean closed;
+
+    /**
+     * @param lines      lines to keep, rounded up to a power of two
+     * @param maxWaiters maximum concurrent stream readers
+     */
+    public ConsoleBuffer(int lines, int maxWaiters) {
+        this.capacity = Integer.highestOneBit(Math.max(2, lines) * 2 - 1);
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.maxWaiters = Math.max(1, maxWaiters);
+    }
+
+    /**
+     * Append a line. Safe to call from any thread; never blocks.
+     */
+    public void add(long time, String level, String logger, String message) {
+        if (message.length() > MAX_LINE_CHARS) {
+            message = message.substring(0, MAX_LINE_CHARS) + "...";
+        }
+        long seq = next.getAndIncrement();
+        slots.set((int) (seq & mask), new Line(seq, time, level, logger, message));
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /** Sequence number of the newest line, -1 if none were logged yet. */
+    public long lastSequence() {
+        return next.get() - 1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Up to {@code limit} lines with a sequence number greater than {@code after}.
+     */
+    public Batch read(long after, int limit) {
+        long head = next.get();
+        long start = Math.max(after + 1, Math.max(0, head - capacity));
+        long dropped = Math.max(0, start - (after + 1));
+        long cursor = start - 1;
+        List<Line> lines = new ArrayList<>(Math.min(limit, (int) Math.max(0, head - start)));
+
+        for (long seq = start; seq < head && lines.size() < limit; seq++) {
+            Line line = slots.get((int) (seq & mask));
+            if (line == null || line.seq() < seq) {
+                break; // sequence taken but the line is not stored yet
+            }
+            if (line.seq() > seq) {
+                dropped++; // overwritten while we were reading
+            } else {
+                lines.add(line);
+            }
+            cursor = seq;
+        }
+        return new Batch(lines, Math.max(cursor, after), dropped);
+    }
+
+    /**
+     * Register the current thread as a stream reader that will be woken by
+     * {@link #add}. Returns false if the reader limit is reached.
+     */
+    public synchronized boolean subscribe() {
+        if (closed || waiters.size() >= maxWaiters) return false;
+        waiters.add(Thread.currentThread());
+        return true;
+    }
+
+    public void unsubscribe() {
+        waiters.remove(Thread.currentThread());
+    }
+
+    /**
+     * Park a subscribed reader until a line newer than {@code after} exists,
+     * the timeout passes or the buffer is closed.
+     */
+    public void await(long after, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long remaining;
+        while (!closed && lastSequence() <= after && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return waiters.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Wake and release all stream readers.
+     */
+    public void close() {
+        closed = true;
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
+    }
+}
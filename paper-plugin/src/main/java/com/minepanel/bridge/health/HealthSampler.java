@@ -0,0 +1,159 @@
+package com.minepanel.bridge.health;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects server performance figures on the main thread and publishes them
+ * as an immutable {@link HealthSnapshot}, so /api/health can be polled often
+ * without touching the server.
+ *
+ * Tick durations come from Paper's ServerTickEndEvent into a ring of the last
+ * {@link #MSPT_WINDOW} ticks. Once per second the sampler summarises the ring,
+ * reads TPS and JVM figures, and refreshes the counts of one world, cycling
+ * through the loaded worlds so large servers never pay for all worlds at once.
+ */
+public class HealthSampler implements Listener {
+
+    /** Tick durations kept for MSPT statistics: one minute at 20 TPS. */
+    public static final int MSPT_WINDOW = 1200;
+
+    private static final long SAMPLE_INTERVAL_TICKS = 20;
+
+    private final MinePanelBridge plugin;
+    private final double[] tickMillis = new double[MSPT_WINDOW];
+    private int tickCount;
+    private int worldCursor;
+    private final Map<String, HealthSnapshot.WorldStats> worldStats = new LinkedHashMap<>();
+    private final Map<String, long[]> lastGc = new HashMap<>();
+    private long version;
+    private volatile HealthSnapshot current = HealthSnapshot.EMPTY;
+    private BukkitTask task;
+
+    public HealthSampler(MinePanelBridge plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        task = plugin.getMainThreadScheduler().runTaskTimer("health", this::sample,
+                SAMPLE_INTERVAL_TICKS, SAMPLE_INTERVAL_TICKS);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * The latest published figures. Safe to call from any thread.
+     */
+    public HealthSnapshot getCurrent() {
+        return current;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        tickMillis[tickCount++ % MSPT_WINDOW] = event.getTickDuration();
+    }
+
+    private void sample() {
+        int samples = Math.min(tickCount, MSPT_WINDOW);
+        double[] sorted = Arrays.copyOf(tickMillis, samples);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (double ms : sorted) {
+            sum += ms;
+        }
+
+        sampleNextWorld();
+
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memoryBean.getNonHeapMemoryUsage();
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        current = new HealthSnapshot(
+                ++version,
+                System.currentTimeMillis(),
+                samples > 0 ? sum / samples : 0,
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99),
+                samples > 0 ? sorted[samples - 1] : 0,
+                samples,
+                Bukkit.getTPS().clone(),
+                List.copyOf(worldStats.values()),
+                new HealthSnapshot.Memory(heap.getUsed(), heap.getCommitted(), heap.getMax(), nonHeap.getUsed()),
+                sampleGc(),
+                new HealthSnapshot.Threads(threadBean.getThreadCount(), threadBean.getDaemonThreadCount(),
+                        threadBean.getPeakThreadCount()));
+    }
+
+    /**
+     * Refresh one world's counts and forget worlds that were unloaded.
+     */
+    private void sampleNextWorld() {
+        List<World> worlds = Bukkit.getWorlds();
+        Set<String> loaded = new HashSet<>();
+        for (World world : worlds) {
+            loaded.add(world.getName());
+        }
+        worldStats.keySet().retainAll(loaded);
+        if (worlds.isEmpty()) return;
+
+        World world = worlds.get(worldCursor++ % worlds.size());
+        worldStats.put(world.getName(), new HealthSnapshot.WorldStats(
+                world.getName(),
+                world.getChunkCount(),
+                world.getEntityCount(),
+                world.getTileEntityCount(),
+                world.getTickableTileEntityCount(),
+                world.getPlayerCount(),
+                System.currentTimeMillis()));
+    }
+
+    private List<HealthSnapshot.GcStats> sampleGc() {
+        List<HealthSnapshot.GcStats> result = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long count = Math.max(0, gc.getCollectionCount());
+            long time = Math.max(0, gc.getCollectionTime());
+            long[] previous = lastGc.put(gc.getName(), new long[]{count, time});
+            double recentAvg = 0;
+            if (previous != null && count > previous[0]) {
+                recentAvg = (double) (time - previous[1]) / (count - previous[0]);
+            }
+            result.add(new HealthSnapshot.GcStats(gc.getName(), count, time, recentAvg));
+        }
+        return result;
+    }
+
+    /**
+     * Nearest-rank percentile of an ascending array.
+     */
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+}
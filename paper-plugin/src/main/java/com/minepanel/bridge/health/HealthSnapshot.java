@@ -0,0 +1,42 @@
+package com.minepanel.bridge.health;
+
+import java.util.List;
+
+/**
+ * Immutable, versioned server performance figures published by the
+ * {@link HealthSampler}. Readers never see partial updates.
+ */
+public record HealthSnapshot(
+        long version,
+        long capturedAt,
+        double msptAvg,
+        double msptP95,
+        double msptP99,
+        double msptMax,
+        int msptSamples,
+        double[] tps,
+        List<WorldStats> worlds,
+        Memory memory,
+        List<GcStats> gc,
+        Threads threads
+) {
+
+    public static final HealthSnapshot EMPTY = new HealthSnapshot(0, 0, 0, 0, 0, 0, 0,
+            new double[3], List.of(), new Memory(0, 0, 0, 0), List.of(), new Threads(0, 0, 0));
+
+    /**
+     * Counts for one world, as of the last time the round-robin sampler visited it.
+     */
+    public record WorldStats(String name, int chunks, int entities, int tileEntities,
+                             int tickingTileEntities, int players, long sampledAt) {}
+
+    public record Memory(long heapUsed, long heapCommitted, long heapMax, long nonHeapUsed) {}
+
+    /**
+     * Cumulative collections and collection time for one collector, plus the
+     * average pause over the last sample interval (0 if it did not run).
+     */
+    public record GcStats(String name, long count, long timeMs, double recentAvgPauseMs) {}
+
+    public record Threads(int live, int daemon, int peak) {}
+}
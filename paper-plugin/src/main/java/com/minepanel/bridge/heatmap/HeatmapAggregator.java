@@ -0,0 +1,194 @@
+package com.minepanel.bridge.heatmap;
+
+import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.snapshot.PlayerSnapshot;
+import com.minepanel.bridge.snapshot.ServerSnapshot;
+import com.minepanel.bridge.snapshot.SnapshotService;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where players spend their time, per world, as decaying weights on a grid of
+ * 16x16-block cells (one cell per chunk).
+ *
+ * Every sample adds 1 to the cell of each online player and scales all
+ * existing weights down so they halve every {@code halfLifeMinutes}; cells
+ * that fade out are dropped. Positions come from the latest
+ * {@link ServerSnapshot}, so sampling runs on an async task and costs the main
+ * thread nothing. Coarser grids are built from the chunk grid on request.
+ */
+public class HeatmapAggregator {
+
+    /** log2 of the base cell size in blocks. */
+    public static final int BASE_SHIFT = 4;
+    public static final int MIN_RESOLUTION = 1 << BASE_SHIFT;
+    public static final int MAX_RESOLUTION = 4096;
+
+    /** Cells whose weight decays below this are dropped. */
+    private static final float MIN_WEIGHT = 0.01f;
+
+    public record WorldSummary(String world, int cells, double totalWeight) {}
+
+    /**
+     * One world's cells at a given resolution. Cell (x, z) covers blocks
+     * x*resolution .. (x+1)*resolution-1, likewise for z.
+     */
+    public record Grid(String world, int resolution, float maxWeight, int[] xs, int[] zs, float[] weights) {}
+
+    private final MinePanelBridge plugin;
+    private final SnapshotService snapshots;
+    private final long intervalTicks;
+    private final double halfLifeMillis;
+    private final int maxCells;
+    private final Map<String, LongFloatMap> worlds = new ConcurrentHashMap<>();
+    private final LongAdder droppedSamples = new LongAdder();
+    private volatile long version;
+    private volatile long sampledAt;
+    private BukkitTask task;
+
+    public HeatmapAggregator(MinePanelBridge plugin, SnapshotService snapshots, long intervalTicks,
+                             double halfLifeMinutes, int maxCells) {
+        this.plugin = plugin;
+        this.snapshots = snapshots;
+        this.intervalTicks = Math.max(1, intervalTicks);
+        this.halfLifeMillis = Math.max(1.0, halfLifeMinutes) * 60_000.0;
+        this.maxCells = Math.max(1, maxCells);
+    }
+
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sample, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** Increases with every sample; used as the response cache version. */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSampledAt() {
+        return sampledAt;
+    }
+
+    public double getHalfLifeSeconds() {
+        return halfLifeMillis / 1000.0;
+    }
+
+    /** Player samples not recorded because a world reached its cell limit. */
+    public long getDroppedSamples() {
+        return droppedSamples.sum();
+    }
+
+    public int getCellCount() {
+        int cells = 0;
+        for (LongFloatMap map : worlds.values()) {
+            synchronized (map) {
+                cells += map.size();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Whether {@code world} has samples. Cheap enough to check before any
+     * grid is built or cached.
+     */
+    public boolean hasWorld(String world) {
+        return worlds.containsKey(world);
+    }
+
+    public List<WorldSummary> summaries() {
+        List<WorldSummary> result = new ArrayList<>();
+        for (Map.Entry<String, LongFloatMap> entry : new TreeMap<>(worlds).entrySet()) {
+            LongFloatMap map = entry.getValue();
+            double[] total = new double[1];
+            int cells;
+            synchronized (map) {
+                map.forEach((x, z, weight) -> total[0] += weight);
+                cells = map.size();
+            }
+            result.add(new WorldSummary(entry.getKey(), cells, total[0]));
+        }
+        return result;
+    }
+
+    /**
+     * A world's grid at {@code resolution} blocks per cell (a power of two from
+     * {@value #MIN_RESOLUTION} to {@value #MAX_RESOLUTION}), or null if the
+     * world has no samples.
+     */
+    public Grid grid(String world, int resolution) {
+        LongFloatMap map = worlds.get(world);
+        if (map == null) return null;
+        int shift = Integer.numberOfTrailingZeros(resolution) - BASE_SHIFT;
+
+        LongFloatMap coarse = new LongFloatMap();
+        synchronized (map) {
+            if (shift == 0) {
+                return toGrid(world, resolution, map);
+            }
+            map.forEach((x, z, weight) -> coarse.add(x >> shift, z >> shift, weight, Integer.MAX_VALUE));
+        }
+        return toGrid(world, resolution, coarse);
+    }
+
+    private static Grid toGrid(String world, int resolution, LongFloatMap cells) {
+        int[] xs = new int[cells.size()];
+        int[] zs = new int[cells.size()];
+        float[] weights = new float[cells.size()];
+        float[] max = new float[1];
+        int[] index = new int[1];
+        cells.forEach((x, z, weight) -> {
+            int i = index[0]++;
+            xs[i] = x;
+            zs[i] = z;
+            weights[i] = weight;
+            if (weight > max[0]) max[0] = weight;
+        });
+        return new Grid(world, resolution, max[0], xs, zs, weights);
+    }
+
+    private void sample() {
+        // An unchanged snapshot still counts: players stayed where they were
+        ServerSnapshot snapshot = snapshots.getCurrent();
+
+        long now = System.currentTimeMillis();
+        if (sampledAt > 0) {
+            float factor = (float) Math.pow(0.5, (now - sampledAt) / halfLifeMillis);
+            worlds.values().removeIf(map -> {
+                synchronized (map) {
+                    map.decay(factor, MIN_WEIGHT);
+                    return map.size() == 0;
+                }
+            });
+        }
+
+        for (PlayerSnapshot player : snapshot.players()) {
+            LongFloatMap map = worlds.computeIfAbsent(player.world(), w -> new LongFloatMap());
+            int x = (int) Math.floor(player.x()) >> BASE_SHIFT;
+            int z = (int) Math.floor(player.z()) >> BASE_SHIFT;
+            boolean added;
+            synchronized (map) {
+                added = map.add(x, z, 1.0f, maxCells);
+            }
+            if (!added) {
+                droppedSamples.increment();
+            }
+        }
+
+        sampledAt = now;
+        version++;
+    }
+}
@@ -0,0 +1,117 @@
+package com.minepanel.bridge.heatmap;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from packed cell coordinates to a float weight,
+ * backed by two primitive arrays (no boxing, no per-entry objects). Not
+ * thread-safe; callers synchronize.
+ */
+final class LongFloatMap {
+
+    /** Never produced by {@link #pack}: chunk coordinates stay far from Integer.MIN_VALUE. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(int x, int z, float value);
+    }
+
+    private long[] keys;
+    private float[] values;
+    private int size;
+
+    LongFloatMap() {
+        allocate(64);
+    }
+
+    static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add {@code delta} to the weight at (x, z), creating the cell if there
+     * are fewer than {@code maxSize} cells.
+     *
+     * @return false if the cell did not exist and the map is full
+     */
+    boolean add(int x, int z, float delta, int maxSize) {
+        long key = pack(x, z);
+        int slot = find(keys, key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return true;
+        }
+        if (size >= maxSize) return false;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2, Float.NEGATIVE_INFINITY);
+        }
+        return true;
+    }
+
+    /**
+     * Multiply every weight by {@code factor} in place. If any cell falls
+     * below {@code min}, the table is rebuilt without those cells (and shrunk
+     * to fit).
+     */
+    void decay(float factor, float min) {
+        int pruned = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) continue;
+            values[i] *= factor;
+            if (values[i] < min) pruned++;
+        }
+        if (pruned == 0) return;
+
+        int capacity = 64;
+        while (capacity < (size - pruned) * 2) capacity <<= 1;
+        rehash(capacity, min);
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != EMPTY) {
+                visitor.accept((int) (key >> 32), (int) key, values[i]);
+            }
+        }
+    }
+
+    private void rehash(int capacity, float min) {
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            float value = oldValues[i];
+            if (value < min) continue;
+            int slot = find(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = value;
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new float[capacity];
+        size = 0;
+    }
+
+    /** Slot holding {@code key}, or the empty slot where it belongs. */
+    private static int find(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
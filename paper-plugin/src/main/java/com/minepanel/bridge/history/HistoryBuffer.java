@@ -0,0 +1,139 @@
+package com.minepanel.bridge.history;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring of samples for one player: a timestamp column and one float
+ * column per {@link HistoryMetric}, stored row by row in flat primitive arrays.
+ *
+ * Samples are appended on the main thread only. Readers copy the ring under a
+ * sequence lock (the sequence is odd while a sample is being written) and retry
+ * if a sample was appended meanwhile, so the main thread never waits on a
+ * reader.
+ */
+public final class HistoryBuffer {
+
+    static final int COLUMNS = HistoryMetric.values().length;
+
+    /**
+     * Samples bucketed into at most {@code points} intervals of
+     * {@code bucketMillis}. Empty buckets are left out; {@code times} holds the
+     * start of each remaining bucket. Aggregates are NaN where a metric had no
+     * value in a bucket.
+     */
+    public record Downsampled(long from, long bucketMillis, long[] times,
+                              float[][] avg, float[][] min, float[][] max) {}
+
+    private final int capacity;
+    private final long[] times;
+    private final float[] values;
+    private long written;
+    private volatile long sequence;
+
+    // Sampler state, main thread only
+    String lastWorld;
+    double lastX;
+    double lastY;
+    double lastZ;
+    long lastSampleAt;
+    volatile long lastSeen;
+
+    HistoryBuffer(int capacity) {
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.values = new float[capacity * COLUMNS];
+    }
+
+    /**
+     * Heap used by a buffer of the given capacity, excluding object headers.
+     */
+    static long bytesFor(int capacity) {
+        return capacity * (8L + 4L * COLUMNS);
+    }
+
+    /**
+     * Append one sample. {@code row} holds one value per metric, in metric order.
+     * Main thread only.
+     */
+    void append(long time, float[] row) {
+        sequence++; // odd: write in progress
+        VarHandle.storeStoreFence();
+        int slot = (int) (written % capacity);
+        times[slot] = time;
+        System.arraycopy(row, 0, values, slot * COLUMNS, COLUMNS);
+        written++;
+        sequence++; // volatile write publishes the sample
+    }
+
+    /**
+     * Aggregate the samples taken at or after {@code from} into at most
+     * {@code points} buckets, for the given metrics. Safe to call from any thread.
+     */
+    public Downsampled downsample(long from, long to, int points, List<HistoryMetric> metrics) {
+        long[] timesCopy = new long[capacity];
+        float[] valuesCopy = new float[values.length];
+        long count;
+        while (true) {
+            long before = sequence;
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            count = written;
+            System.arraycopy(times, 0, timesCopy, 0, capacity);
+            System.arraycopy(values, 0, valuesCopy, 0, values.length);
+            VarHandle.loadLoadFence();
+            if (sequence == before) break;
+        }
+
+        long bucketMillis = Math.max(1, (to - from + points - 1) / points);
+        int metricCount = metrics.size();
+        float[][] sum = new float[metricCount][points];
+        float[][] min = new float[metricCount][points];
+        float[][] max = new float[metricCount][points];
+        int[][] n = new int[metricCount][points];
+        boolean[] used = new boolean[points];
+        for (float[] column : min) Arrays.fill(column, Float.POSITIVE_INFINITY);
+        for (float[] column : max) Arrays.fill(column, Float.NEGATIVE_INFINITY);
+
+        long oldest = Math.max(0, count - capacity);
+        for (long i = oldest; i < count; i++) {
+            int slot = (int) (i % capacity);
+            long time = timesCopy[slot];
+            if (time < from || time > to) continue;
+            int bucket = (int) Math.min(points - 1, (time - from) / bucketMillis);
+            used[bucket] = true;
+            for (int m = 0; m < metricCount; m++) {
+                float value = valuesCopy[slot * COLUMNS + metrics.get(m).ordinal()];
+                if (Float.isNaN(value)) continue;
+                sum[m][bucket] += value;
+                n[m][bucket]++;
+                if (value < min[m][bucket]) min[m][bucket] = value;
+                if (value > max[m][bucket]) max[m][bucket] = value;
+            }
+        }
+
+        int buckets = 0;
+        for (boolean u : used) {
+            if (u) buckets++;
+        }
+        long[] outTimes = new long[buckets];
+        float[][] outAvg = new float[metricCount][buckets];
+        float[][] outMin = new float[metricCount][buckets];
+        float[][] outMax = new float[metricCount][buckets];
+        for (int b = 0, out = 0; b < points; b++) {
+            if (!used[b]) continue;
+            outTimes[out] = from + b * bucketMillis;
+            for (int m = 0; m < metricCount; m++) {
+                boolean empty = n[m][b] == 0;
+                outAvg[m][out] = empty ? Float.NaN : sum[m][b] / n[m][b];
+                outMin[m][out] = empty ? Float.NaN : min[m][b];
+                outMax[m][out] = empty ? Float.NaN : max[m][b];
+            }
+            out++;
+        }
+        return new Downsampled(from, bucketMillis, outTimes, outAvg, outMin, outMax);
+    }
+}
@@ -0,0 +1,35 @@
+package com.minepanel.bridge.history;
+
+import java.util.Locale;
+
+/**
+ * Values sampled into each player's history, in column order.
+ */
+public enum HistoryMetric {
+    PING,
+    HEALTH,
+    FOOD,
+    X,
+    Y,
+    Z,
+    /** Distance moved since the previous sample, in blocks per second. */
+    SPEED,
+    EXP_LEVEL;
+
+    private static final HistoryMetric[] VALUES = values();
+
+    /** Name used in the API, e.g. "ping", "expLevel". */
+    public String apiName() {
+        return this == EXP_LEVEL ? "expLevel" : name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Metric for an API name, or null if there is none.
+     */
+    public static HistoryMetric fromApiName(String name) {
+        for (HistoryMetric metric : VALUES) {
+            if (metric.apiName().equals(name)) return metric;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+package com.minepanel.bridge.history;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short in-memory history of ping, health, food, position, speed and XP level
+ * for online players, served by /api/player/:uuid/history.
+ *
+ * Each player gets a {@link HistoryBuffer} of {@code samples} entries, filled
+ * every {@code intervalTicks} on the main thread. Buffers of players who left
+ * are kept for {@code retainOfflineSeconds} so recent history can still be
+ * inspected, and at most {@code maxPlayers} buffers exist at once, which puts
+ * a fixed upper bound on memory use (see {@link #getMaxBytes()}).
+ */
+public class PlayerHistory {
+
+    private final MinePanelBridge plugin;
+    private final int capacity;
+    private final long intervalTicks;
+    private final int maxPlayers;
+    private final long retainMillis;
+    private final Map<UUID, HistoryBuffer> buffers = new ConcurrentHashMap<>();
+    private final float[] row = new float[HistoryBuffer.COLUMNS];
+    private BukkitTask task;
+
+    public PlayerHistory(MinePanelBridge plugin, int samples, long intervalTicks,
+                         int maxPlayers, long retainOfflineSeconds) {
+        this.plugin = plugin;
+        this.capacity = Math.max(1, samples);
+        this.intervalTicks = Math.max(1, intervalTicks);
+        this.maxPlayers = Math.max(1, maxPlayers);
+        this.retainMillis = Math.max(0, retainOfflineSeconds) * 1000L;
+    }
+
+    public void start() {
+        task = plugin.getMainThreadScheduler().runTaskTimer("history", this::sample, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        buffers.clear();
+    }
+
+    /**
+     * History for a player, or null if none is kept. Safe to call from any thread.
+     */
+    public HistoryBuffer get(UUID uuid) {
+        return buffers.get(uuid);
+    }
+
+    /** Milliseconds between samples (at 20 TPS). */
+    public long getSampleIntervalMillis() {
+        return intervalTicks * 50;
+    }
+
+    /** How far back a full buffer reaches, in milliseconds. */
+    public long getSpanMillis() {
+        return capacity * getSampleIntervalMillis();
+    }
+
+    public int getPlayerCount() {
+        return buffers.size();
+    }
+
+    /** Memory held by the current buffers. */
+    public long getBytes() {
+        return buffers.size() * HistoryBuffer.bytesFor(capacity);
+    }
+
+    /** Memory held when all {@code maxPlayers} buffers are in use. */
+    public long getMaxBytes() {
+        return maxPlayers * HistoryBuffer.bytesFor(capacity);
+    }
+
+    /**
+     * Bytes per player buffer.
+     */
+    public long getBytesPerPlayer() {
+        return HistoryBuffer.bytesFor(capacity);
+    }
+
+    private void sample() {
+        long now = System.currentTimeMillis();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            HistoryBuffer buffer = buffers.get(player.getUniqueId());
+            if (buffer == null) {
+                if (buffers.size() >= maxPlayers && !evictOldestOffline()) continue;
+                buffer = new HistoryBuffer(capacity);
+                buffers.put(player.getUniqueId(), buffer);
+            }
+
+            Location loc = player.getLocation();
+            String world = loc.getWorld().getName();
+            float speed = Float.NaN;
+            if (world.equals(buffer.lastWorld) && now > buffer.lastSampleAt) {
+                double dx = loc.getX() - buffer.lastX;
+                double dy = loc.getY() - buffer.lastY;
+                double dz = loc.getZ() - buffer.lastZ;
+                speed = (float) (Math.sqrt(dx * dx + dy * dy + dz * dz) * 1000.0 / (now - buffer.lastSampleAt));
+            }
+
+            row[HistoryMetric.PING.ordinal()] = player.getPing();
+            row[HistoryMetric.HEALTH.ordinal()] = (float) player.getHealth();
+            row[HistoryMetric.FOOD.ordinal()] = player.getFoodLevel();
+            row[HistoryMetric.X.ordinal()] = (float) loc.getX();
+            row[HistoryMetric.Y.ordinal()] = (float) loc.getY();
+            row[HistoryMetric.Z.ordinal()] = (float) loc.getZ();
+            row[HistoryMetric.SPEED.ordinal()] = speed;
+            row[HistoryMetric.EXP_LEVEL.ordinal()] = player.getLevel();
+            buffer.append(now, row);
+
+            buffer.lastWorld = world;
+            buffer.lastX = loc.getX();
+            buffer.lastY = loc.getY();
+            buffer.lastZ = loc.getZ();
+            buffer.lastSampleAt = now;
+            buffer.lastSeen = now;
+        }
+
+        // Drop players who have been gone longer than the retention period
+        long cutoff = now - retainMillis;
+        buffers.values().removeIf(buffer -> buffer.lastSeen < cutoff);
+    }
+
+    /**
+     * Make room for a new player by dropping the buffer of whoever left
+     * longest ago. Returns false if every buffer belongs to an online player.
+     */
+    private boolean evictOldestOffline() {
+        UUID oldest = null;
+        long oldestSeen = Long.MAX_VALUE;
+        for (Map.Entry<UUID, HistoryBuffer> entry : buffers.entrySet()) {
+            long seen = entry.getValue().lastSeen;
+            if (seen < oldestSeen && Bukkit.getPlayer(entry.getKey()) == null) {
+                oldest = entry.getKey();
+                oldestSeen = seen;
+            }
+        }
+        if (oldest == null) return false;
+        buffers.remove(oldest);
+        return true;
+    }
+}
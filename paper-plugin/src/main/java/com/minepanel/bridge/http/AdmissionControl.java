@@ -0,0 +1,59 @@
+package com.minepanel.bridge.http;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many API requests run at once and how many may wait for a slot.
+ * Requests beyond both limits are rejected immediately so the caller can
+ * answer 503 instead of letting latency grow without bound.
+ */
+public class AdmissionControl {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public AdmissionControl(int maxConcurrent, int maxQueued, long queueTimeoutMs) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeoutMs = Math.max(0, queueTimeoutMs);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+    }
+
+    /**
+     * Try to admit a request, waiting up to the queue timeout if all slots are busy
+     * and the queue has room.
+     *
+     * @return true if admitted; the caller must then call {@link #release()}
+     */
+    public boolean acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,246 @@
+package com.minepanel.bridge.http;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * A {@link JsonWriter} that emits CBOR (RFC 8949) instead of JSON text, so every
+ * {@link JsonBody} can be sent in either format without change.
+ *
+ * Objects and arrays are written as indefinite-length items, which lets the
+ * body stream out without knowing element counts up front. Integers use the
+ * shortest CBOR head, and doubles are narrowed to float32 when that is exact.
+ */
+public class CborWriter extends JsonWriter {
+
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_TEXT = 3;
+
+    private static final int ARRAY_INDEFINITE = 0x9F;
+    private static final int MAP_INDEFINITE = 0xBF;
+    private static final int BREAK = 0xFF;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+
+    private final OutputStream out;
+    private final byte[] scratch = new byte[9];
+
+    public CborWriter(OutputStream out) {
+        super(Writer.nullWriter());
+        this.out = out;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        out.write(ARRAY_INDEFINITE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        out.write(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        out.write(MAP_INDEFINITE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        out.write(BREAK);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        writeText(name);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        writeText(value);
+        return this;
+    }
+
+    /**
+     * Raw JSON (e.g. a cached fragment) is parsed and re-emitted as CBOR.
+     */
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) return nullValue();
+        writeElement(JsonParser.parseString(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        out.write(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        out.write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) return nullValue();
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(float value) throws IOException {
+        return value((double) value);
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (value == Math.rint(value) && !Double.isInfinite(value)
+                && Math.abs(value) < 0x1p53 && !(value == 0 && 1 / value < 0)) {
+            return value((long) value);
+        }
+        float narrow = (float) value;
+        if (narrow == value || Double.isNaN(value)) {
+            int bits = Float.floatToIntBits(narrow);
+            scratch[0] = (byte) FLOAT32;
+            for (int i = 0; i < 4; i++) {
+                scratch[1 + i] = (byte) (bits >>> (24 - 8 * i));
+            }
+            out.write(scratch, 0, 5);
+        } else {
+            long bits = Double.doubleToLongBits(value);
+            scratch[0] = (byte) FLOAT64;
+            for (int i = 0; i < 8; i++) {
+                scratch[1 + i] = (byte) (bits >>> (56 - 8 * i));
+            }
+            out.write(scratch, 0, 9);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) return nullValue();
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        if (value instanceof BigInteger big && big.bitLength() < 64) {
+            return value(big.longValue());
+        }
+        return value(value.doubleValue());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeElement(JsonElement element) throws IOException {
+        if (element.isJsonNull()) {
+            nullValue();
+        } else if (element instanceof JsonObject object) {
+            beginObject();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                name(entry.getKey());
+                writeElement(entry.getValue());
+            }
+            endObject();
+        } else if (element instanceof JsonArray array) {
+            beginArray();
+            for (JsonElement item : array) {
+                writeElement(item);
+            }
+            endArray();
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                value(primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                writeNumber(primitive.getAsString());
+            } else {
+                value(primitive.getAsString());
+            }
+        }
+    }
+
+    private void writeNumber(String literal) throws IOException {
+        try {
+            value(Long.parseLong(literal));
+        } catch (NumberFormatException e) {
+            value(new BigDecimal(literal).doubleValue());
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Write a major type with its argument in the shortest form.
+     */
+    private void writeHead(int major, long argument) throws IOException {
+        int type = major << 5;
+        if (argument < 24) {
+            out.write(type | (int) argument);
+            return;
+        }
+        int size;
+        if (argument < 0x100) {
+            scratch[0] = (byte) (type | 24);
+            size = 1;
+        } else if (argument < 0x10000) {
+            scratch[0] = (byte) (type | 25);
+            size = 2;
+        } else if (argument < 0x100000000L) {
+            scratch[0] = (byte) (type | 26);
+            size = 4;
+        } else {
+            scratch[0] = (byte) (type | 27);
+            size = 8;
+        }
+        for (int i = 0; i < size; i++) {
+            scratch[1 + i] = (byte) (argument >>> (8 * (size - 1 - i)));
+        }
+        out.write(scratch, 0, size + 1);
+    }
+}
@@ -0,0 +1,279 @@
+package com.minepanel.bridge.http;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Response compression negotiated through Accept-Encoding. Bodies smaller
+ * than the configured threshold are sent as-is, since the framing overhead
+ * outweighs the savings.
+ *
+ * Deflaters are pooled: each holds native zlib state that is expensive to
+ * create and is only freed by {@link Deflater#end()}, so they are reset and
+ * reused instead of allocated per response. All of them run in raw (nowrap)
+ * mode and the gzip/zlib framing is written here.
+ */
+public class Compression {
+
+    /** Exchange attribute holding the server's Compression, set by the request wrapper. */
+    public static final String ATTRIBUTE = "minepanel.compression";
+
+    /**
+     * Content codings the server can produce.
+     */
+    public enum Coding {
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        private final String token;
+
+        Coding(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+    }
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9c};
+
+    private final int minBytes;
+    private final int level;
+    private final BlockingQueue<Deflater> pool;
+
+    public Compression(int minBytes, int level, int poolSize) {
+        this.minBytes = Math.max(0, minBytes);
+        this.level = level;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    /**
+     * The Compression attached to an exchange, or null if compression is disabled.
+     */
+    public static Compression of(HttpExchange exchange) {
+        return (Compression) exchange.getAttribute(ATTRIBUTE);
+    }
+
+    public int getMinBytes() {
+        return minBytes;
+    }
+
+    /**
+     * Pick a coding from the request's Accept-Encoding header, preferring gzip
+     * on ties. Returns null when the client accepts neither.
+     */
+    public Coding negotiate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (header == null || header.isEmpty()) return null;
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : header.split(",")) {
+            String[] params = part.split(";");
+            String token = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(params);
+            switch (token) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, q);
+                case "deflate" -> deflate = Math.max(deflate, q);
+                case "*" -> any = q;
+                default -> { }
+            }
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+
+        if (gzip > 0 && gzip >= deflate) return Coding.GZIP;
+        if (deflate > 0) return Coding.DEFLATE;
+        return null;
+    }
+
+    /**
+     * Compress a complete body.
+     */
+    public byte[] compress(byte[] data, Coding coding) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = encoder(bytes, coding)) {
+            out.write(data);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Wrap {@code out} so everything written is compressed with {@code coding}.
+     * Closing the returned stream finishes the framing, closes {@code out} and
+     * returns the deflater to the pool.
+     */
+    public OutputStream encoder(OutputStream out, Coding coding) throws IOException {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        return new EncodingStream(out, deflater, coding);
+    }
+
+    /**
+     * Open a response body for a response of unknown length. Output is buffered
+     * until it reaches the threshold: smaller bodies are sent uncompressed with
+     * a Content-Length, larger ones switch to chunked compressed output.
+     * Response headers other than Content-Encoding must be set beforehand.
+     */
+    public OutputStream openResponse(HttpExchange exchange, int code, Coding coding) {
+        return new ThresholdStream(exchange, code, coding);
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Raw deflate wrapped in gzip (RFC 1952) or zlib (RFC 1950) framing.
+     */
+    private final class EncodingStream extends DeflaterOutputStream {
+
+        private final Deflater deflater;
+        private final Coding coding;
+        private final Checksum checksum;
+        private boolean closed;
+
+        EncodingStream(OutputStream out, Deflater deflater, Coding coding) throws IOException {
+            super(out, deflater, 8192);
+            this.deflater = deflater;
+            this.coding = coding;
+            this.checksum = coding == Coding.GZIP ? new CRC32() : new Adler32();
+            out.write(coding == Coding.GZIP ? GZIP_HEADER : ZLIB_HEADER);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            checksum.update(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                finish();
+                writeTrailer();
+                out.close();
+            } finally {
+                release(deflater);
+            }
+        }
+
+        private void writeTrailer() throws IOException {
+            long sum = checksum.getValue();
+            if (coding == Coding.GZIP) {
+                long size = deflater.getBytesRead();
+                out.write(new byte[]{
+                        (byte) sum, (byte) (sum >>> 8), (byte) (sum >>> 16), (byte) (sum >>> 24),
+                        (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)});
+            } else {
+                out.write(new byte[]{
+                        (byte) (sum >>> 24), (byte) (sum >>> 16), (byte) (sum >>> 8), (byte) sum});
+            }
+        }
+    }
+
+    /**
+     * Buffers up to the threshold before committing to a compressed or plain response.
+     */
+    private final class ThresholdStream extends OutputStream {
+
+        private final HttpExchange exchange;
+        private final int code;
+        private final Coding coding;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        private OutputStream target;
+        private boolean closed;
+
+        ThresholdStream(HttpExchange exchange, int code, Coding coding) {
+            this.exchange = exchange;
+            this.code = code;
+            this.coding = coding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len < minBytes) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+                exchange.sendResponseHeaders(code, 0);
+                target = encoder(exchange.getResponseBody(), coding);
+                buffer.writeTo(target);
+                buffer = null;
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            if (target != null) {
+                target.close();
+                return;
+            }
+            byte[] body = buffer.toByteArray();
+            exchange.sendResponseHeaders(code, body.length == 0 ? -1 : body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.minepanel.bridge.http;
 
+import com.google.gson.stream.JsonWriter;
 import com.minepanel.bridge.MinePanelBridge;
 import com.minepanel.bridge.audit.AuditLogger;
+import com.minepanel.bridge.audit.AuditQuery;
 import com.minepanel.bridge.config.PluginConfig;
 import com.minepanel.bridge.http.handlers.*;
+import com.minepanel.bridge.metrics.CountingOutputStream;
+import com.minepanel.bridge.metrics.Metrics;
+import com.minepanel.bridge.metrics.RouteMetrics;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpExchange;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lightweight HTTP server using Java's built-in com.sun.net.httpserver.
@@ -18,15 +30,32 @@ import java.nio.charset.StandardCharsets;
  */
 public class HttpApiServer {
 
+    /** Request headers that select the response representation. */
+    private static final String VARY = "Accept, Accept-Encoding";
+
     private final MinePanelBridge plugin;
     private final PluginConfig config;
     private final AuditLogger auditLogger;
+    private final ResponseCache responseCache = new ResponseCache();
+    private final AdmissionControl admission;
+    private final Compression compression;
+    private final Metrics metrics;
     private HttpServer server;
+    private ExecutorService executor;
 
     public HttpApiServer(MinePanelBridge plugin, PluginConfig config, AuditLogger auditLogger) {
         this.plugin = plugin;
         this.config = config;
         this.auditLogger = auditLogger;
+        this.admission = new AdmissionControl(config.getHttpMaxConcurrent(),
+                config.getHttpMaxQueued(), config.getHttpQueueTimeoutMs());
+        this.compression = config.isHttpCompression()
+                ? new Compression(config.getHttpCompressionMinBytes(), config.getHttpCompressionLevel(),
+                        config.getHttpMaxConcurrent())
+                : null;
+        this.metrics = plugin.getMetrics();
+        metrics.gauge("http_admission_in_flight", "Requests holding an admission slot.", admission::getInFlight);
+        metrics.gauge("http_admission_queued", "Requests waiting for an admission slot.", admission::getQueued);
     }
 
     public void start() throws IOException {
@@ -34,13 +63,26 @@ public class HttpApiServer {
         server = HttpServer.create(address, 0);
 
         // Register all endpoint handlers
-        server.createContext("/api/health", wrap(new HealthHandler(plugin)));
-        server.createContext("/api/players", wrap(new PlayersHandler(plugin)));
-        server.createContext("/api/player/", wrap(new PlayerDetailHandler(plugin, config)));
-        server.createContext("/api/whitelist", wrap(new WhitelistHandler(plugin, auditLogger)));
-        server.createContext("/api/command", wrap(new CommandHandler(plugin, config, auditLogger)));
+        server.createContext("/api/health", wrap("health", new HealthHandler(plugin, plugin.getSnapshotService(), responseCache)));
+        server.createContext("/api/players", wrap("players", new PlayersHandler(plugin, plugin.getSnapshotService(), responseCache)));
+        server.createContext("/api/player/", wrap("player", new PlayerDetailHandler(plugin, config,
+                plugin.getInventoryTracker(), plugin.getTaskQueue(), plugin.getOfflinePlayerReader(), plugin.getPlayerHistory())));
+        server.createContext("/api/whitelist", wrap("whitelist", new WhitelistHandler(plugin, config, auditLogger, responseCache,
+                plugin.getWhitelistIndex(), plugin.getTaskQueue())));
+        server.createContext("/api/command", wrap("command", new CommandHandler(plugin, config, auditLogger, plugin.getTaskQueue())));
+        server.createContext("/api/audit", wrap("audit", new AuditHandler(plugin, new AuditQuery(auditLogger))));
+        server.createContext("/api/metrics", wrap("metrics", new MetricsHandler(metrics)));
+        server.createContext("/api/lag/", wrap("lag", new LagHandler(plugin.getLagScanner(), auditLogger, responseCache)));
+        server.createContext("/api/heatmap", wrap("heatmap", new HeatmapHandler(plugin.getHeatmapAggregator(), responseCache)));
+        ConsoleHandler consoleHandler = new ConsoleHandler(config, plugin.getConsoleBuffer());
+        server.createContext("/api/console", wrap("console", consoleHandler));
+        // Long-lived stream connections are capped by streamMaxClients, not request admission
+        server.createContext("/api/stream", wrap("stream", new StreamHandler(plugin, config,
+                plugin.getSnapshotService(), plugin.getEventStream()), false));
+        server.createContext("/api/console/stream", wrap("console_stream", consoleHandler, false));
 
-        server.setExecutor(null); // default executor
+        executor = createExecutor();
+        server.setExecutor(executor); // null = JDK dispatcher thread
         server.start();
     }
 
@@ -48,33 +90,259 @@ public class HttpApiServer {
         if (server != null) {
             server.stop(0);
         }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    private ExecutorService createExecutor() {
+        switch (config.getHttpExecutor()) {
+            case VIRTUAL:
+                return Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("MinePanel-HTTP-", 0).factory());
+            case FIXED:
+                AtomicInteger threadId = new AtomicInteger();
+                return Executors.newFixedThreadPool(Math.max(1, config.getHttpThreads()), r -> {
+                    Thread thread = new Thread(r, "MinePanel-HTTP-" + threadId.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Wraps a handler with shared-secret authentication, bounded admission and
+     * per-route metrics.
+     */
+    private com.sun.net.httpserver.HttpHandler wrap(String route, com.sun.net.httpserver.HttpHandler handler) {
+        return wrap(route, handler, true);
     }
 
     /**
-     * Wraps a handler with shared-secret authentication.
+     * Wraps a handler with shared-secret authentication, per-route metrics and,
+     * if {@code bounded}, admission control.
      */
-    private com.sun.net.httpserver.HttpHandler wrap(com.sun.net.httpserver.HttpHandler handler) {
+    private com.sun.net.httpserver.HttpHandler wrap(String route, com.sun.net.httpserver.HttpHandler handler,
+                                                    boolean bounded) {
+        RouteMetrics routeMetrics = metrics.route(route);
         return exchange -> {
-            // Check shared secret
-            String secret = exchange.getRequestHeaders().getFirst("X-Panel-Secret");
-            if (secret == null || !secret.equals(config.getSharedSecret())) {
-                sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
-                return;
+            long start = System.nanoTime();
+            routeMetrics.begin();
+            exchange.setStreams(null, new CountingOutputStream(exchange.getResponseBody(), routeMetrics));
+            try {
+                dispatch(exchange, handler, bounded);
+            } finally {
+                routeMetrics.end(exchange.getResponseCode(), System.nanoTime() - start);
             }
-            // Delegate to actual handler
+        };
+    }
+
+    private void dispatch(HttpExchange exchange, com.sun.net.httpserver.HttpHandler handler, boolean bounded)
+            throws IOException {
+        if (compression != null) {
+            exchange.setAttribute(Compression.ATTRIBUTE, compression);
+        }
+        // Check shared secret
+        String secret = exchange.getRequestHeaders().getFirst("X-Panel-Secret");
+        if (secret == null || !secret.equals(config.getSharedSecret())) {
+            sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
+            return;
+        }
+        // Bounded admission: reject with 503 when both slots and queue are full
+        boolean admitted = true;
+        if (bounded) {
             try {
-                handler.handle(exchange);
-            } catch (Exception e) {
-                plugin.getLogger().severe("API error: " + e.getMessage());
-                e.printStackTrace();
+                admitted = admission.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                admitted = false;
+            }
+        }
+        if (!admitted) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getHttpRetryAfterSeconds()));
+            sendResponse(exchange, 503, "{\"error\":\"Server busy\"}");
+            return;
+        }
+        // Delegate to actual handler
+        try {
+            handler.handle(exchange);
+        } catch (Exception e) {
+            plugin.getLogger().severe("API error: " + e.getMessage());
+            e.printStackTrace();
+            if (exchange.getResponseCode() == -1) {
                 sendResponse(exchange, 500, "{\"error\":\"Internal server error\"}");
+            } else {
+                // Headers already went out with a success code; a clean end would pass a partial body off as complete
+                abort(exchange);
             }
-        };
+        } finally {
+            if (bounded) {
+                admission.release();
+            }
+        }
     }
 
+    /**
+     * Send a JSON literal body. Clients that negotiated another encoding get
+     * the same document transcoded.
+     */
     public static void sendResponse(HttpExchange exchange, int code, String body) throws IOException {
-        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ResponseEncoding encoding = ResponseEncoding.negotiate(exchange);
+        if (encoding == ResponseEncoding.JSON) {
+            sendBytes(exchange, code, encoding, body.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length());
+        try (JsonWriter out = encoding.newWriter(bytes)) {
+            out.jsonValue(body);
+        }
+        sendBytes(exchange, code, encoding, bytes.toByteArray());
+    }
+
+    /**
+     * Stream a body straight to the client using chunked transfer encoding,
+     * in the encoding negotiated from the Accept header.
+     */
+    public static void sendJson(HttpExchange exchange, int code, JsonBody body) throws IOException {
+        ResponseEncoding encoding = ResponseEncoding.negotiate(exchange);
+        JsonWriter out = encoding.newWriter(openBody(exchange, code, encoding.contentType()));
+        body.write(out);
+        out.close();
+    }
+
+    /**
+     * Start a streamed response of unknown length and return its body. The body
+     * is compressed if the client accepts it.
+     *
+     * Closing the body completes the response, so callers close it only after
+     * writing everything (not in try-with-resources): if writing throws, the
+     * request wrapper drops the connection instead, and the client sees a
+     * truncated response rather than a complete one.
+     */
+    public static OutputStream openBody(HttpExchange exchange, int code, String contentType) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Vary", VARY);
+
+        Compression compression = Compression.of(exchange);
+        Compression.Coding coding = compression != null ? compression.negotiate(exchange) : null;
+        if (coding != null) {
+            // Small bodies still go out uncompressed once the threshold stream sees the end
+            return compression.openResponse(exchange, code, coding);
+        }
+        exchange.sendResponseHeaders(code, 0);
+        return exchange.getResponseBody();
+    }
+
+    /**
+     * End a response whose headers were already sent by closing the connection
+     * without terminating the body.
+     */
+    public static void abort(HttpExchange exchange) {
+        if (exchange.getResponseBody() instanceof CountingOutputStream body) {
+            body.abort();
+        }
+        exchange.close();
+    }
+
+    /**
+     * Send a cached 200 response with its ETag, or 304 Not Modified with no body
+     * if the client's If-None-Match already matches.
+     */
+    public static void sendCached(HttpExchange exchange, ResponseCache.Entry entry) throws IOException {
+        if (sendNotModified(exchange, entry.etag())) {
+            return;
+        }
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+        Compression compression = Compression.of(exchange);
+        Compression.Coding coding = compression != null && entry.body().length >= compression.getMinBytes()
+                ? compression.negotiate(exchange) : null;
+        if (coding != null) {
+            // Each coding is a distinct representation and gets its own validator
+            exchange.getResponseHeaders().set("ETag", codingEtag(entry.etag(), coding));
+            exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+            writeBytes(exchange, 200, entry.encoding(), entry.compressedBody(compression, coding));
+        } else {
+            exchange.getResponseHeaders().set("ETag", entry.etag());
+            writeBytes(exchange, 200, entry.encoding(), entry.body());
+        }
+    }
+
+    /**
+     * Answer 304 Not Modified if {@code etag} is non-null and matches the request's
+     * If-None-Match header.
+     *
+     * @return true if a 304 was sent and the exchange is complete
+     */
+    public static boolean sendNotModified(HttpExchange exchange, String etag) throws IOException {
+        String matched = etag != null ? matchEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), etag) : null;
+        if (matched == null) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("ETag", matched);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Vary", VARY);
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    /**
+     * Find the If-None-Match entry that validates {@code etag}, either as-is or
+     * as one of its compressed representations.
+     *
+     * @return the matching tag to echo back, or null if none matches
+     */
+    private static String matchEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return null;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*")) {
+                return etag;
+            }
+            if (tag.equals(etag)) {
+                return tag;
+            }
+            for (Compression.Coding coding : Compression.Coding.values()) {
+                if (tag.equals(codingEtag(etag, coding))) {
+                    return tag;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String codingEtag(String etag, Compression.Coding coding) {
+        return etag.substring(0, etag.length() - 1) + "-" + coding.token() + "\"";
+    }
+
+    /**
+     * Send a complete body, compressing it if the client accepts a coding and
+     * it is over the threshold.
+     */
+    private static void sendBytes(HttpExchange exchange, int code, ResponseEncoding encoding, byte[] bytes) throws IOException {
+        Compression compression = Compression.of(exchange);
+        Compression.Coding coding = compression != null && bytes.length >= compression.getMinBytes()
+                ? compression.negotiate(exchange) : null;
+        if (coding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", coding.token());
+            bytes = compression.compress(bytes, coding);
+        }
+        writeBytes(exchange, code, encoding, bytes);
+    }
+
+    private static void writeBytes(HttpExchange exchange, int code, ResponseEncoding encoding, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", encoding.contentType());
+        exchange.getResponseHeaders().set("Vary", VARY);
         exchange.sendResponseHeaders(code, bytes.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(bytes);
@@ -84,4 +352,22 @@ public class HttpApiServer {
     public static String readBody(HttpExchange exchange) throws IOException {
         return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
     }
+
+    /**
+     * Decode the request's query string. Repeated keys keep the last value.
+     */
+    public static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) return params;
+
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
 }
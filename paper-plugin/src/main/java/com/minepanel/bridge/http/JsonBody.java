@@ -0,0 +1,15 @@
+package com.minepanel.bridge.http;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * A response body written incrementally with Gson's streaming {@link JsonWriter},
+ * so handlers never build an intermediate JsonObject tree or String.
+ */
+@FunctionalInterface
+public interface JsonBody {
+
+    void write(JsonWriter out) throws IOException;
+}
@@ -0,0 +1,112 @@
+package com.minepanel.bridge.http;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Pagination and projection parameters shared by list endpoints:
+ * {@code limit}, {@code cursor} and {@code fields}.
+ *
+ * Lists are ordered by a sort key of lowercase name and UUID, and the cursor
+ * is the sort key of the last item returned. Paging is by key rather than
+ * offset, so players joining or leaving between pages do not shift later pages.
+ *
+ * @param limit  maximum items per page, or 0 when the request is not paged
+ * @param cursor sort key to continue after, or null for the first page
+ * @param fields requested fields, or null for all fields
+ */
+public record ListQuery(int limit, String cursor, Set<String> fields) {
+
+    /**
+     * Parse the shared parameters.
+     *
+     * @throws IllegalArgumentException if a parameter is malformed or names an unknown field
+     */
+    public static ListQuery parse(Map<String, String> params, Set<String> knownFields, int maxLimit) {
+        int limit = 0;
+        String limitParam = params.get("limit");
+        if (limitParam != null && !limitParam.isBlank()) {
+            try {
+                limit = Math.max(1, Math.min(maxLimit, Integer.parseInt(limitParam)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid limit");
+            }
+        }
+
+        String cursor = params.get("cursor");
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+
+        Set<String> fields = null;
+        String fieldsParam = params.get("fields");
+        if (fieldsParam != null && !fieldsParam.isBlank()) {
+            fields = new LinkedHashSet<>();
+            for (String field : fieldsParam.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) continue;
+                if (!knownFields.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                fields.add(name);
+            }
+            fields = Collections.unmodifiableSet(fields);
+        }
+
+        return new ListQuery(limit, cursor, fields);
+    }
+
+    public boolean paged() {
+        return limit > 0;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Whether an item with this sort key belongs after the cursor.
+     */
+    public boolean afterCursor(String sortKey) {
+        return cursor == null || sortKey.compareTo(cursor) > 0;
+    }
+
+    /**
+     * Sort key for a named item. Names are limited to [A-Za-z0-9_], which all
+     * sort after '/', so shorter names order before longer names sharing a prefix.
+     */
+    public static String sortKey(String name, UUID uuid) {
+        return (name == null ? "" : name.toLowerCase(Locale.ROOT)) + "/" + uuid;
+    }
+
+    /**
+     * Cache key for this query: the base key plus the limit, the requested
+     * fields in sorted order and the non-null filter values, given as
+     * name/value pairs already normalized by the caller. Unknown parameters
+     * and differently ordered field lists therefore share an entry.
+     *
+     * @return the key, or null for a cursor page, which would otherwise add
+     *         an entry per page and evict the entries polled most often
+     */
+    public String cacheKey(String base, String... filters) {
+        if (cursor != null) return null;
+        StringBuilder sb = new StringBuilder(base).append("?limit=").append(limit);
+        if (fields != null) {
+            sb.append("&fields=").append(String.join(",", new TreeSet<>(fields)));
+        }
+        for (int i = 0; i + 1 < filters.length; i += 2) {
+            if (filters[i + 1] != null) {
+                sb.append('&').append(filters[i]).append('=')
+                        .append(URLEncoder.encode(filters[i + 1], StandardCharsets.UTF_8));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.minepanel.bridge.http;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps pre-encoded response bodies for read endpoints, keyed by a
+ * caller-supplied version (snapshot version or content hash) and the response
+ * encoding. A body is only rebuilt when the version changes, and each entry
+ * carries a strong ETag so unchanged polls can be answered with 304 Not Modified.
+ *
+ * The ETag is derived from the encoded body alone, so a rebuild that produces
+ * the same bytes keeps the same ETag and clients still get a 304.
+ */
+public class ResponseCache {
+
+    private static final int MAX_ENTRIES = 64;
+
+    /**
+     * An encoded response body and its validator, plus compressed copies of the
+     * body made on first request for each content coding.
+     */
+    public record Entry(long version, ResponseEncoding encoding, byte[] body, String etag,
+                        Map<Compression.Coding, byte[]> compressed) {
+
+        Entry(long version, ResponseEncoding encoding, byte[] body, String etag) {
+            this(version, encoding, body, etag, new ConcurrentHashMap<>(2));
+        }
+
+        /**
+         * The body compressed with {@code coding}, compressing it once per entry.
+         */
+        public byte[] compressedBody(Compression compression, Compression.Coding coding) {
+            return compressed.computeIfAbsent(coding, c -> compression.compress(body, c));
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Return the cached entry for {@code key} if it was built for {@code version},
+     * otherwise build, encode and cache a new one. A null key builds the entry
+     * without caching it, for responses unlikely to be requested again.
+     */
+    public Entry get(String key, ResponseEncoding encoding, long version, JsonBody builder) {
+        if (key == null) {
+            byte[] body = encode(encoding, builder);
+            return new Entry(version, encoding, body, etag(body));
+        }
+        String slot = slot(key, encoding);
+        synchronized (entries) {
+            Entry cached = entries.get(slot);
+            if (cached != null && cached.version() == version) {
+                return cached;
+            }
+        }
+
+        byte[] body = encode(encoding, builder);
+        Entry entry = new Entry(version, encoding, body, etag(body));
+
+        synchronized (entries) {
+            entries.put(slot, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Return the ETag of the cached entry for {@code key} if it is still valid
+     * for {@code version}, or null. Lets handlers answer 304 without building a body.
+     */
+    public String currentEtag(String key, ResponseEncoding encoding, long version) {
+        if (key == null) return null;
+        synchronized (entries) {
+            Entry cached = entries.get(slot(key, encoding));
+            return cached != null && cached.version() == version ? cached.etag() : null;
+        }
+    }
+
+    private static String slot(String key, ResponseEncoding encoding) {
+        return encoding == ResponseEncoding.JSON ? key : key + "@" + encoding.name();
+    }
+
+    private static byte[] encode(ResponseEncoding encoding, JsonBody builder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (JsonWriter out = encoding.newWriter(bytes)) {
+            builder.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String etag(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return "\"" + Integer.toHexString(body.length) + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+}
@@ -0,0 +1,85 @@
+package com.minepanel.bridge.http;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Wire formats a response body can be written in. Handlers always write through
+ * a {@link JsonWriter}; the encoding decides what that writer actually emits.
+ * JSON is the default, CBOR is used when the client prefers application/cbor.
+ */
+public enum ResponseEncoding {
+
+    JSON("application/json; charset=utf-8") {
+        @Override
+        public JsonWriter newWriter(OutputStream out) {
+            return new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192));
+        }
+    },
+    CBOR("application/cbor") {
+        @Override
+        public JsonWriter newWriter(OutputStream out) {
+            return new CborWriter(new BufferedOutputStream(out, 8192));
+        }
+    };
+
+    private final String contentType;
+
+    ResponseEncoding(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * A writer that encodes into {@code out}. Closing the writer closes {@code out}.
+     */
+    public abstract JsonWriter newWriter(OutputStream out);
+
+    /**
+     * Pick the encoding from the request's Accept header. CBOR is only chosen
+     * when it is ranked strictly above JSON, so missing, wildcard or ambiguous
+     * headers keep the JSON default.
+     */
+    public static ResponseEncoding negotiate(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        if (accept == null || !accept.contains("cbor")) return JSON;
+
+        double cbor = 0;
+        double json = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String type = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(parts);
+            switch (type) {
+                case "application/cbor" -> cbor = Math.max(cbor, q);
+                case "application/json", "application/*", "*/*" -> json = Math.max(json, q);
+                default -> { }
+            }
+        }
+        return cbor > json ? CBOR : JSON;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
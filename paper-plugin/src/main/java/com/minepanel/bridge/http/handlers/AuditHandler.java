@@ -0,0 +1,100 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.audit.AuditQuery;
+import com.minepanel.bridge.audit.AuditRecord;
+import com.minepanel.bridge.http.HttpApiServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * GET /api/audit?actor=&action=&from=&to=&limit=&cursor=
+ * Searches the plugin's audit log (including rotated segments), newest first.
+ * from/to accept epoch milliseconds or ISO-8601 instants.
+ */
+public class AuditHandler implements HttpHandler {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private final MinePanelBridge plugin;
+    private final AuditQuery query;
+
+    public AuditHandler(MinePanelBridge plugin, AuditQuery query) {
+        this.plugin = plugin;
+        this.query = query;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        Map<String, String> params = HttpApiServer.parseQuery(exchange);
+        AuditQuery.Page page;
+        try {
+            AuditQuery.Criteria criteria = new AuditQuery.Criteria(
+                    blankToNull(params.get("actor")),
+                    blankToNull(params.get("action")),
+                    parseTime(params.get("from"), Long.MIN_VALUE),
+                    parseTime(params.get("to"), Long.MAX_VALUE),
+                    parseLimit(params.get("limit")),
+                    blankToNull(params.get("cursor")));
+            page = query.search(criteria);
+        } catch (IllegalArgumentException e) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+            return;
+        }
+
+        HttpApiServer.sendJson(exchange, 200, out -> {
+            out.beginObject();
+            out.name("entries").beginArray();
+            for (AuditRecord record : page.entries()) {
+                out.beginObject();
+                out.name("timestamp").value(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(record.timestamp())));
+                out.name("actor").value(record.actor());
+                out.name("endpoint").value(record.endpoint());
+                out.name("action").value(record.action());
+                out.name("payload").value(record.payload());
+                out.endObject();
+            }
+            out.endArray();
+            out.name("nextCursor").value(page.nextCursor());
+            out.endObject();
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static long parseTime(String value, long fallback) {
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid time: use epoch millis or ISO-8601");
+            }
+        }
+    }
+
+    private static int parseLimit(String value) {
+        if (value == null || value.isBlank()) return DEFAULT_LIMIT;
+        try {
+            return Math.max(1, Math.min(MAX_LIMIT, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+    }
+}
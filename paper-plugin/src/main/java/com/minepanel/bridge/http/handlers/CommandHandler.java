@@ -1,32 +1,61 @@
 package com.minepanel.bridge.http.handlers;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import com.minepanel.bridge.MinePanelBridge;
 import com.minepanel.bridge.audit.AuditLogger;
 import com.minepanel.bridge.config.PluginConfig;
+import com.minepanel.bridge.console.ConsoleBuffer;
 import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.scheduler.BudgetedTaskQueue;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * POST /api/command
  * Executes a whitelisted command on the server console.
  * Body: { "command": "say", "args": ["Hello world"] }
+ * The response's consoleCursor can be passed to /api/console?after= to read
+ * what the console printed from then on.
+ *
+ * POST /api/command/batch
+ * Executes several whitelisted commands, spread across ticks under the
+ * configured per-tick budget, and returns each command's result and output.
+ * Body: { "commands": ["kick bot1", { "command": "kick", "args": ["bot2"] }] }
  */
 public class CommandHandler implements HttpHandler {
 
     private final MinePanelBridge plugin;
     private final PluginConfig config;
     private final AuditLogger auditLogger;
+    private final BudgetedTaskQueue taskQueue;
 
-    public CommandHandler(MinePanelBridge plugin, PluginConfig config, AuditLogger auditLogger) {
+    /**
+     * Outcome of one command in a batch.
+     */
+    private record Result(String command, String status, List<String> output) {}
+
+    public CommandHandler(MinePanelBridge plugin, PluginConfig config, AuditLogger auditLogger,
+                          BudgetedTaskQueue taskQueue) {
         this.plugin = plugin;
         this.config = config;
         this.auditLogger = auditLogger;
+        this.taskQueue = taskQueue;
     }
 
     @Override
@@ -36,6 +65,17 @@ public class CommandHandler implements HttpHandler {
             return;
         }
 
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/api/command")) {
+            handleSingle(exchange);
+        } else if (path.equals("/api/command/batch")) {
+            handleBatch(exchange);
+        } else {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Not found\"}");
+        }
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
         String actor = exchange.getRequestHeaders().getFirst("X-Panel-Actor");
         String body = HttpApiServer.readBody(exchange);
 
@@ -47,22 +87,19 @@ public class CommandHandler implements HttpHandler {
             return;
         }
 
-        String command = json.has("command") ? json.get("command").getAsString().trim() : null;
-        if (command == null || command.isEmpty()) {
+        String command = json.has("command") ? stringValue(json.get("command")) : null;
+        if (command == null || command.trim().isEmpty()) {
             HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Missing command\"}");
             return;
         }
+        command = command.trim();
 
-        // Build full command string
-        StringBuilder fullCommand = new StringBuilder(command);
-        if (json.has("args") && json.get("args").isJsonArray()) {
-            for (var arg : json.getAsJsonArray("args")) {
-                fullCommand.append(" ").append(arg.getAsString());
-            }
+        String cmdStr = toCommandString(json);
+        if (cmdStr == null) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Arguments must be strings or numbers\"}");
+            return;
         }
 
-        String cmdStr = fullCommand.toString();
-
         // Check if command is whitelisted
         if (!config.isCommandAllowed(cmdStr)) {
             auditLogger.log(actor, "/api/command", "COMMAND_DENIED", "cmd=" + cmdStr);
@@ -71,8 +108,12 @@ public class CommandHandler implements HttpHandler {
             return;
         }
 
+        // Output of the command will follow this console line
+        ConsoleBuffer console = plugin.getConsoleBuffer();
+        long consoleCursor = console != null ? console.lastSequence() : -1;
+
         // Execute on main thread
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        plugin.getMainThreadScheduler().runTask("command", () -> {
             Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), cmdStr);
         });
 
@@ -81,6 +122,148 @@ public class CommandHandler implements HttpHandler {
         JsonObject resp = new JsonObject();
         resp.addProperty("ok", true);
         resp.addProperty("message", "Command dispatched: " + cmdStr);
+        if (console != null) {
+            resp.addProperty("consoleCursor", consoleCursor);
+        }
+        HttpApiServer.sendResponse(exchange, 200, resp.toString());
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        String actor = exchange.getRequestHeaders().getFirst("X-Panel-Actor");
+        String body = HttpApiServer.readBody(exchange);
+
+        JsonArray commands;
+        try {
+            commands = JsonParser.parseString(body).getAsJsonObject().getAsJsonArray("commands");
+        } catch (Exception e) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid JSON\"}");
+            return;
+        }
+        if (commands == null || commands.isEmpty()) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Missing commands\"}");
+            return;
+        }
+        if (commands.size() > config.getCommandBatchMaxSize()) {
+            HttpApiServer.sendResponse(exchange, 400,
+                    "{\"error\":\"Too many commands (max " + config.getCommandBatchMaxSize() + ")\"}");
+            return;
+        }
+
+        List<String> cmdStrs = new ArrayList<>(commands.size());
+        for (JsonElement element : commands) {
+            String cmdStr = toCommandString(element);
+            if (cmdStr == null || cmdStr.isEmpty()) {
+                HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid command entry\"}");
+                return;
+            }
+            cmdStrs.add(cmdStr);
+        }
+
+        // Queue every allowed command; the queue spreads them across ticks
+        List<Future<Result>> futures = new ArrayList<>(cmdStrs.size());
+        for (String cmdStr : cmdStrs) {
+            futures.add(config.isCommandAllowed(cmdStr) ? taskQueue.submit(() -> execute(cmdStr)) : null);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCommandBatchTimeoutMs());
+        List<Result> results = new ArrayList<>(cmdStrs.size());
+        for (int i = 0; i < cmdStrs.size(); i++) {
+            Result result = await(cmdStrs.get(i), futures.get(i), deadline);
+            results.add(result);
+            // Audited with the outcome, so the log says whether the command actually ran
+            if (futures.get(i) == null) {
+                auditLogger.log(actor, "/api/command/batch", "COMMAND_DENIED", "cmd=" + result.command());
+            } else {
+                auditLogger.log(actor, "/api/command/batch", "COMMAND_EXEC",
+                        "cmd=" + result.command() + " status=" + result.status());
+            }
+        }
+
+        JsonArray resultsJson = new JsonArray();
+        for (Result result : results) {
+            JsonObject rj = new JsonObject();
+            rj.addProperty("command", result.command());
+            rj.addProperty("status", result.status());
+            JsonArray output = new JsonArray();
+            result.output().forEach(output::add);
+            rj.add("output", output);
+            resultsJson.add(rj);
+        }
+
+        JsonObject resp = new JsonObject();
+        resp.addProperty("ok", true);
+        resp.add("results", resultsJson);
         HttpApiServer.sendResponse(exchange, 200, resp.toString());
     }
+
+    /**
+     * Wait for a queued command until the batch deadline. Commands that have not
+     * started by then are cancelled.
+     */
+    private static Result await(String cmdStr, Future<Result> future, long deadline) {
+        if (future == null) {
+            return new Result(cmdStr, "denied", List.of());
+        }
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return new Result(cmdStr, future.cancel(false) ? "cancelled" : "timeout", List.of());
+        } catch (CancellationException e) {
+            return new Result(cmdStr, "cancelled", List.of());
+        } catch (ExecutionException e) {
+            return new Result(cmdStr, "error", List.of(String.valueOf(e.getCause().getMessage())));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            return new Result(cmdStr, "cancelled", List.of());
+        }
+    }
+
+    /**
+     * Run a command on the main thread as a console-equivalent sender that
+     * captures the feedback the command sends back.
+     */
+    private static Result execute(String cmdStr) {
+        List<String> output = new ArrayList<>();
+        CommandSender sender = Bukkit.createCommandSender(
+                message -> output.add(PlainTextComponentSerializer.plainText().serialize(message)));
+        boolean found = Bukkit.getServer().dispatchCommand(sender, cmdStr);
+        return new Result(cmdStr, found ? "ok" : "unknown", output);
+    }
+
+    /**
+     * Accepts either "kick bot1" or { "command": "kick", "args": ["bot1"] }.
+     * Returns null if the entry, its command or one of its args is not a string
+     * (or number).
+     */
+    private static String toCommandString(JsonElement element) {
+        if (!element.isJsonObject()) {
+            String command = stringValue(element);
+            return command != null ? command.trim() : null;
+        }
+        return toCommandString(element.getAsJsonObject());
+    }
+
+    private static String toCommandString(JsonObject json) {
+        String command = json.has("command") ? stringValue(json.get("command")) : null;
+        if (command == null) return null;
+
+        StringBuilder fullCommand = new StringBuilder(command.trim());
+        if (json.has("args") && json.get("args").isJsonArray()) {
+            for (JsonElement element : json.getAsJsonArray("args")) {
+                String arg = stringValue(element);
+                if (arg == null) return null;
+                fullCommand.append(" ").append(arg);
+            }
+        }
+        return fullCommand.toString();
+    }
+
+    /** The element as text if it is a string or number, else null. */
+    private static String stringValue(JsonElement element) {
+        if (!element.isJsonPrimitive()) return null;
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        return primitive.isString() || primitive.isNumber() ? primitive.getAsString() : null;
+    }
 }
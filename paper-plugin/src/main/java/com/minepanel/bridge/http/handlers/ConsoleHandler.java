@@ -0,0 +1,179 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.google.gson.stream.JsonWriter;
+import com.minepanel.bridge.config.PluginConfig;
+import com.minepanel.bridge.console.ConsoleBuffer;
+import com.minepanel.bridge.http.HttpApiServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * GET /api/console?after=<seq>&limit=<n>
+ * Console lines logged after sequence number {@code after}, oldest first.
+ * Without {@code after}, the newest {@code limit} lines. Returns the cursor to
+ * pass as {@code after} next time and how many lines were overwritten before
+ * they could be read.
+ *
+ * GET /api/console/stream?after=<seq>
+ * Server-Sent Events: one "line" event per console line (the event id is its
+ * sequence number, so reconnecting clients resume through Last-Event-ID) and a
+ * "dropped" event if the client fell further behind than the buffer holds.
+ */
+public class ConsoleHandler implements HttpHandler {
+
+    private static final int DEFAULT_LIMIT = 200;
+    private static final int STREAM_BATCH = 256;
+    private static final long HEARTBEAT_MS = 15_000;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final PluginConfig config;
+    private final ConsoleBuffer buffer;
+
+    public ConsoleHandler(PluginConfig config, ConsoleBuffer buffer) {
+        this.config = config;
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+        if (buffer == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Console view is disabled\"}");
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = HttpApiServer.parseQuery(exchange);
+        if (path.equals("/api/console/stream")) {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            String after = lastEventId != null ? lastEventId : query.get("after");
+            Long cursor = after != null ? parseLong(after) : Long.valueOf(buffer.lastSequence());
+            if (cursor == null || cursor < -1) {
+                HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid after\"}");
+                return;
+            }
+            stream(exchange, cursor);
+        } else if (path.equals("/api/console") || path.equals("/api/console/")) {
+            handleRead(exchange, query);
+        } else {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Not found\"}");
+        }
+    }
+
+    private void handleRead(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Long limit = query.containsKey("limit") ? parseLong(query.get("limit")) : Long.valueOf(DEFAULT_LIMIT);
+        if (limit == null || limit <= 0) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid limit\"}");
+            return;
+        }
+        int max = (int) Math.min(limit, buffer.getCapacity());
+
+        long after;
+        if (query.containsKey("after")) {
+            Long parsed = parseLong(query.get("after"));
+            if (parsed == null || parsed < -1) {
+                HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid after\"}");
+                return;
+            }
+            after = parsed;
+        } else {
+            after = Math.max(-1, buffer.lastSequence() - max);
+        }
+
+        ConsoleBuffer.Batch batch = buffer.read(after, max);
+        HttpApiServer.sendJson(exchange, 200, out -> {
+            out.beginObject();
+            out.name("cursor").value(batch.cursor());
+            out.name("dropped").value(batch.dropped());
+            out.name("more").value(buffer.lastSequence() > batch.cursor());
+            out.name("lines").beginArray();
+            for (ConsoleBuffer.Line line : batch.lines()) {
+                writeLine(out, line);
+            }
+            out.endArray();
+            out.endObject();
+        });
+    }
+
+    private void stream(HttpExchange exchange, long cursor) throws IOException {
+        // A long-lived stream would block every other request on the JDK dispatcher thread
+        if (config.getHttpExecutor() == PluginConfig.ExecutorMode.DEFAULT) {
+            HttpApiServer.sendResponse(exchange, 503,
+                    "{\"error\":\"Streaming requires httpExecutor virtual or fixed\"}");
+            return;
+        }
+        if (!buffer.subscribe()) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getHttpRetryAfterSeconds()));
+            HttpApiServer.sendResponse(exchange, 503, "{\"error\":\"Too many console stream clients\"}");
+            return;
+        }
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                while (!buffer.isClosed()) {
+                    ConsoleBuffer.Batch batch = buffer.read(cursor, STREAM_BATCH);
+                    cursor = batch.cursor();
+                    if (batch.dropped() > 0) {
+                        os.write(("event: dropped\ndata: {\"count\":" + batch.dropped() + "}\n\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                    }
+                    for (ConsoleBuffer.Line line : batch.lines()) {
+                        os.write(encode(line));
+                    }
+                    if (batch.lines().isEmpty() && batch.dropped() == 0) {
+                        buffer.await(cursor, HEARTBEAT_MS);
+                        if (buffer.lastSequence() <= cursor) {
+                            os.write(HEARTBEAT);
+                        }
+                    }
+                    os.flush();
+                    if (Thread.currentThread().isInterrupted()) break;
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            buffer.unsubscribe();
+            exchange.close();
+        }
+    }
+
+    private static byte[] encode(ConsoleBuffer.Line line) throws IOException {
+        StringWriter data = new StringWriter(line.message().length() + 96);
+        try (JsonWriter out = new JsonWriter(data)) {
+            writeLine(out, line);
+        }
+        return ("id: " + line.seq() + "\nevent: line\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeLine(JsonWriter out, ConsoleBuffer.Line line) throws IOException {
+        out.beginObject();
+        out.name("seq").value(line.seq());
+        out.name("time").value(line.time());
+        out.name("level").value(line.level());
+        out.name("logger").value(line.logger());
+        out.name("message").value(line.message());
+        out.endObject();
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
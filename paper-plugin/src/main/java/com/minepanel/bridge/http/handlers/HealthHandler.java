@@ -1,24 +1,41 @@
 package com.minepanel.bridge.http.handlers;
 
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.health.HealthSnapshot;
 import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.http.ResponseCache;
+import com.minepanel.bridge.http.ResponseEncoding;
+import com.minepanel.bridge.scheduler.MainThreadScheduler;
+import com.minepanel.bridge.serialization.ItemFragmentCache;
+import com.minepanel.bridge.serialization.ItemSerializer;
+import com.minepanel.bridge.snapshot.ServerSnapshot;
+import com.minepanel.bridge.snapshot.SnapshotService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import org.bukkit.Bukkit;
 
 import java.io.IOException;
 
 /**
  * GET /api/health
- * Returns server status info.
+ * Returns server status info from the latest main-thread snapshot, plus
+ * MSPT, per-world and JVM figures from the health sampler.
+ *
+ * The body is cached against the versions of everything it reports: the
+ * snapshot, the health sample and the bridge main-thread summary (each moves
+ * at most once per second) and the item cache counters. Polls in between get
+ * a 304.
  */
 public class HealthHandler implements HttpHandler {
 
     private final MinePanelBridge plugin;
+    private final SnapshotService snapshots;
+    private final ResponseCache cache;
 
-    public HealthHandler(MinePanelBridge plugin) {
+    public HealthHandler(MinePanelBridge plugin, SnapshotService snapshots, ResponseCache cache) {
         this.plugin = plugin;
+        this.snapshots = snapshots;
+        this.cache = cache;
     }
 
     @Override
@@ -28,15 +45,103 @@ public class HealthHandler implements HttpHandler {
             return;
         }
 
-        JsonObject json = new JsonObject();
-        json.addProperty("ok", true);
-        json.addProperty("serverName", Bukkit.getServer().getName());
-        json.addProperty("version", Bukkit.getServer().getVersion());
-        json.addProperty("onlinePlayers", Bukkit.getOnlinePlayers().size());
-        json.addProperty("maxPlayers", Bukkit.getMaxPlayers());
-        json.addProperty("motd", Bukkit.getServer().getMotd());
-        json.addProperty("tps", Math.round(Bukkit.getServer().getTPS()[0] * 100.0) / 100.0);
+        ServerSnapshot snapshot = snapshots.getCurrent();
+        HealthSnapshot health = plugin.getHealthSampler().getCurrent();
+        MainThreadScheduler.Stats mainThread = plugin.getMainThreadScheduler().getStats();
+        ItemFragmentCache itemCache = ItemSerializer.getCache();
+        // Every part only ever grows, so the sum changes whenever any source does
+        long version = snapshot.version() + health.version() + mainThread.version()
+                + (itemCache != null ? itemCache.getHits() + itemCache.getMisses() : 0);
+        HttpApiServer.sendCached(exchange, cache.get("health", ResponseEncoding.negotiate(exchange), version,
+                out -> render(out, snapshot, health, mainThread, itemCache)));
+    }
+
+    private static void render(JsonWriter out, ServerSnapshot snapshot, HealthSnapshot health,
+                               MainThreadScheduler.Stats mainThread, ItemFragmentCache itemCache) throws IOException {
+        out.beginObject();
+        out.name("ok").value(true);
+        out.name("serverName").value(snapshot.serverName());
+        out.name("version").value(snapshot.serverVersion());
+        out.name("onlinePlayers").value(snapshot.onlinePlayers());
+        out.name("maxPlayers").value(snapshot.maxPlayers());
+        out.name("motd").value(snapshot.motd());
+        out.name("tps").value(snapshot.tps());
+        out.name("snapshotVersion").value(snapshot.version());
+        out.name("snapshotAt").value(snapshot.capturedAt());
+        out.name("healthAt").value(health.capturedAt());
+
+        // Server tick time over the last minute, in milliseconds
+        out.name("mspt").beginObject();
+        out.name("avg").value(round(health.msptAvg()));
+        out.name("p95").value(round(health.msptP95()));
+        out.name("p99").value(round(health.msptP99()));
+        out.name("max").value(round(health.msptMax()));
+        out.name("samples").value(health.msptSamples());
+        out.endObject();
+
+        double[] tps = health.tps();
+        out.name("tpsHistory").beginObject();
+        out.name("1m").value(round(tps.length > 0 ? tps[0] : 0));
+        out.name("5m").value(round(tps.length > 1 ? tps[1] : 0));
+        out.name("15m").value(round(tps.length > 2 ? tps[2] : 0));
+        out.endObject();
+
+        out.name("worlds").beginArray();
+        for (HealthSnapshot.WorldStats world : health.worlds()) {
+            out.beginObject();
+            out.name("name").value(world.name());
+            out.name("chunks").value(world.chunks());
+            out.name("entities").value(world.entities());
+            out.name("tileEntities").value(world.tileEntities());
+            out.name("tickingTileEntities").value(world.tickingTileEntities());
+            out.name("players").value(world.players());
+            out.name("sampledAt").value(world.sampledAt());
+            out.endObject();
+        }
+        out.endArray();
+
+        out.name("jvm").beginObject();
+        HealthSnapshot.Memory memory = health.memory();
+        out.name("heapUsed").value(memory.heapUsed());
+        out.name("heapCommitted").value(memory.heapCommitted());
+        out.name("heapMax").value(memory.heapMax());
+        out.name("nonHeapUsed").value(memory.nonHeapUsed());
+        out.name("threads").beginObject();
+        out.name("live").value(health.threads().live());
+        out.name("daemon").value(health.threads().daemon());
+        out.name("peak").value(health.threads().peak());
+        out.endObject();
+        out.name("gc").beginArray();
+        for (HealthSnapshot.GcStats gc : health.gc()) {
+            out.beginObject();
+            out.name("name").value(gc.name());
+            out.name("count").value(gc.count());
+            out.name("timeMs").value(gc.timeMs());
+            out.name("recentAvgPauseMs").value(round(gc.recentAvgPauseMs()));
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+
+        // Main-thread time spent on bridge work (snapshots, queued commands, trackers)
+        out.name("mainThread").beginObject();
+        out.name("lastSecondMs").value(mainThread.lastSecondNanos() / 1e6);
+        out.name("avgTickMs").value(mainThread.avgTickNanos() / 1e6);
+        out.name("worstTickMs").value(mainThread.worstTickNanos() / 1e6);
+        out.endObject();
+
+        if (itemCache != null) {
+            out.name("itemCache").beginObject();
+            out.name("hits").value(itemCache.getHits());
+            out.name("misses").value(itemCache.getMisses());
+            out.name("size").value(itemCache.getSize());
+            out.name("maxEntries").value(itemCache.getMaxEntries());
+            out.endObject();
+        }
+        out.endObject();
+    }
 
-        HttpApiServer.sendResponse(exchange, 200, json.toString());
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
     }
 }
@@ -0,0 +1,134 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+import com.minepanel.bridge.heatmap.HeatmapAggregator;
+import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.http.ResponseCache;
+import com.minepanel.bridge.http.ResponseEncoding;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * GET /api/heatmap
+ * Worlds with samples, with their cell count and total weight.
+ *
+ * GET /api/heatmap?world=<name>&resolution=<blocks>
+ * Player density for one world. resolution is the cell size in blocks, a power
+ * of two from 16 (chunks) to 4096; the default 512 matches region files.
+ * Cells are sent as one flat array of [x, z, weight] triples, with x and z in
+ * cell units (multiply by resolution for block coordinates).
+ *
+ * Responses are cached until the next sample.
+ */
+public class HeatmapHandler implements HttpHandler {
+
+    private static final int DEFAULT_RESOLUTION = 512;
+
+    private final HeatmapAggregator heatmap;
+    private final ResponseCache cache;
+
+    public HeatmapHandler(HeatmapAggregator heatmap, ResponseCache cache) {
+        this.heatmap = heatmap;
+        this.cache = cache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+        if (heatmap == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Heatmap is disabled\"}");
+            return;
+        }
+
+        Map<String, String> query = HttpApiServer.parseQuery(exchange);
+        String world = query.get("world");
+        long version = heatmap.getVersion();
+        ResponseEncoding encoding = ResponseEncoding.negotiate(exchange);
+
+        if (world == null || world.isEmpty()) {
+            HttpApiServer.sendCached(exchange, cache.get("heatmap", encoding, version, out -> {
+                out.beginObject();
+                writeHeader(out, version);
+                out.name("worlds").beginArray();
+                for (HeatmapAggregator.WorldSummary summary : heatmap.summaries()) {
+                    out.beginObject();
+                    out.name("world").value(summary.world());
+                    out.name("cells").value(summary.cells());
+                    out.name("totalWeight").value(round(summary.totalWeight()));
+                    out.endObject();
+                }
+                out.endArray();
+                out.endObject();
+            }));
+            return;
+        }
+
+        int resolution = parseResolution(query.get("resolution"));
+        if (resolution < 0) {
+            HttpApiServer.sendResponse(exchange, 400,
+                    "{\"error\":\"resolution must be a power of two from 16 to 4096\"}");
+            return;
+        }
+
+        // Unknown worlds never reach the cache, so arbitrary names cannot evict entries
+        if (!heatmap.hasWorld(world)) {
+            HttpApiServer.sendResponse(exchange, 404,
+                    "{\"error\":" + new JsonPrimitive("No samples for world " + world) + "}");
+            return;
+        }
+
+        // The grid is only built when the cached body is stale
+        HttpApiServer.sendCached(exchange, cache.get("heatmap:" + world + ":" + resolution, encoding, version, out -> {
+            HeatmapAggregator.Grid grid = heatmap.grid(world, resolution);
+            out.beginObject();
+            writeHeader(out, version);
+            out.name("world").value(world);
+            out.name("resolution").value(resolution);
+            // A world pruned since the check above has no cells left
+            out.name("maxWeight").value(grid != null ? round(grid.maxWeight()) : 0);
+            out.name("cells").beginArray();
+            if (grid != null) {
+                for (int i = 0; i < grid.xs().length; i++) {
+                    out.value(grid.xs()[i]);
+                    out.value(grid.zs()[i]);
+                    out.value(round(grid.weights()[i]));
+                }
+            }
+            out.endArray();
+            out.endObject();
+        }));
+    }
+
+    private void writeHeader(JsonWriter out, long version) throws IOException {
+        out.name("version").value(version);
+        out.name("sampledAt").value(heatmap.getSampledAt());
+        out.name("halfLifeSeconds").value(heatmap.getHalfLifeSeconds());
+    }
+
+    /**
+     * Cell size in blocks, or -1 if not a power of two in the allowed range.
+     */
+    private static int parseResolution(String value) {
+        if (value == null || value.isEmpty()) return DEFAULT_RESOLUTION;
+        try {
+            int resolution = Integer.parseInt(value);
+            boolean valid = Integer.bitCount(resolution) == 1
+                    && resolution >= HeatmapAggregator.MIN_RESOLUTION
+                    && resolution <= HeatmapAggregator.MAX_RESOLUTION;
+            return valid ? resolution : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
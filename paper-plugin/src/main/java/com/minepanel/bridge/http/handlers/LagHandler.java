@@ -0,0 +1,143 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.google.gson.stream.JsonWriter;
+import com.minepanel.bridge.audit.AuditLogger;
+import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.http.ResponseCache;
+import com.minepanel.bridge.http.ResponseEncoding;
+import com.minepanel.bridge.lag.LagReport;
+import com.minepanel.bridge.lag.LagScanner;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * POST /api/lag/scan -> start a scan of all loaded chunks (409 if one is running)
+ * GET  /api/lag/scan -> scan progress and the latest completed report
+ *
+ * The report lists entity and tile entity counts by type and the chunks with
+ * the most of both. It is cached until the next scan completes.
+ */
+public class LagHandler implements HttpHandler {
+
+    private final LagScanner scanner;
+    private final AuditLogger auditLogger;
+    private final ResponseCache cache;
+
+    public LagHandler(LagScanner scanner, AuditLogger auditLogger, ResponseCache cache) {
+        this.scanner = scanner;
+        this.auditLogger = auditLogger;
+        this.cache = cache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (!path.equals("/api/lag/scan")) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Not found\"}");
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+        if ("POST".equalsIgnoreCase(method)) {
+            handleStart(exchange);
+        } else if ("GET".equalsIgnoreCase(method)) {
+            handleStatus(exchange);
+        } else {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+        }
+    }
+
+    private void handleStart(HttpExchange exchange) throws IOException {
+        if (!scanner.start()) {
+            HttpApiServer.sendResponse(exchange, 409, "{\"error\":\"A scan is already running\"}");
+            return;
+        }
+
+        String actor = exchange.getRequestHeaders().getFirst("X-Panel-Actor");
+        auditLogger.log(actor, "/api/lag/scan", "LAG_SCAN", "");
+
+        LagScanner.Progress progress = scanner.getProgress();
+        HttpApiServer.sendJson(exchange, 202, out -> {
+            out.beginObject();
+            out.name("ok").value(true);
+            writeProgress(out, progress);
+            out.endObject();
+        });
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        LagScanner.Progress progress = scanner.getProgress();
+        LagReport report = scanner.getReport();
+        if (progress.running()) {
+            HttpApiServer.sendJson(exchange, 200, out -> render(out, progress, report));
+            return;
+        }
+        // Idle: nothing changes until the next scan finishes
+        long version = report != null ? report.id() : 0;
+        HttpApiServer.sendCached(exchange, cache.get("lag", ResponseEncoding.negotiate(exchange), version,
+                out -> render(out, progress, report)));
+    }
+
+    private static void render(JsonWriter out, LagScanner.Progress progress, LagReport report) throws IOException {
+        out.beginObject();
+        writeProgress(out, progress);
+        out.name("report");
+        if (report == null) {
+            out.nullValue();
+        } else {
+            writeReport(out, report);
+        }
+        out.endObject();
+    }
+
+    private static void writeProgress(JsonWriter out, LagScanner.Progress progress) throws IOException {
+        out.name("running").value(progress.running());
+        out.name("progress").beginObject();
+        out.name("startedAt").value(progress.startedAt());
+        out.name("worldsDone").value(progress.worldsDone());
+        out.name("worldsTotal").value(progress.worldsTotal());
+        out.name("chunksScanned").value(progress.chunksScanned());
+        out.name("ticks").value(progress.ticks());
+        out.endObject();
+    }
+
+    private static void writeReport(JsonWriter out, LagReport report) throws IOException {
+        out.beginObject();
+        out.name("id").value(report.id());
+        out.name("startedAt").value(report.startedAt());
+        out.name("finishedAt").value(report.finishedAt());
+        out.name("ticks").value(report.ticks());
+        out.name("busyMs").value(report.busyMicros() / 1000.0);
+        out.name("chunksScanned").value(report.chunksScanned());
+        out.name("totalEntities").value(report.totalEntities());
+        out.name("totalTileEntities").value(report.totalTileEntities());
+        writeCounts(out, "entityTypes", report.entityTypes());
+        writeCounts(out, "tileEntityTypes", report.tileTypes());
+        out.name("hotspots").beginArray();
+        for (LagReport.Hotspot hotspot : report.hotspots()) {
+            out.beginObject();
+            out.name("world").value(hotspot.world());
+            out.name("chunkX").value(hotspot.chunkX());
+            out.name("chunkZ").value(hotspot.chunkZ());
+            out.name("blockX").value(hotspot.chunkX() << 4);
+            out.name("blockZ").value(hotspot.chunkZ() << 4);
+            out.name("entities").value(hotspot.entities());
+            out.name("tileEntities").value(hotspot.tileEntities());
+            writeCounts(out, "types", hotspot.types());
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    private static void writeCounts(JsonWriter out, String name, Map<String, Integer> counts) throws IOException {
+        out.name(name).beginObject();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+    }
+}
@@ -0,0 +1,40 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.metrics.Metrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /api/metrics
+ * Plugin metrics in the Prometheus text exposition format.
+ */
+public class MetricsHandler implements HttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Metrics metrics;
+
+    public MetricsHandler(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                HttpApiServer.openBody(exchange, 200, CONTENT_TYPE), StandardCharsets.UTF_8), 8192);
+        metrics.writePrometheus(out);
+        out.close();
+    }
+}
@@ -2,35 +2,76 @@ package com.minepanel.bridge.http.handlers;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.minepanel.bridge.MinePanelBridge;
 import com.minepanel.bridge.config.PluginConfig;
+import com.minepanel.bridge.history.HistoryBuffer;
+import com.minepanel.bridge.history.HistoryMetric;
+import com.minepanel.bridge.history.PlayerHistory;
 import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.inventory.InventoryTracker;
+import com.minepanel.bridge.playerdata.OfflinePlayerData;
+import com.minepanel.bridge.playerdata.OfflinePlayerReader;
+import com.minepanel.bridge.scheduler.BudgetedTaskQueue;
 import com.minepanel.bridge.serialization.ItemSerializer;
+import com.minepanel.bridge.whitelist.WhitelistIndex;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.potion.PotionEffect;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * GET /api/player/:uuid          -> player detail
  * GET /api/player/:uuid/inventory  -> inventory (if enabled)
+ * GET /api/player/:uuid/inventory?since=<version> -> only slots changed since version
  * GET /api/player/:uuid/enderchest -> ender chest (if enabled)
+ * GET /api/player/:uuid/history?metric=ping,health&window=10m&points=120
+ *                                  -> downsampled recent history (online or recently left)
+ *
+ * Offline players are served from their saved playerdata file (if
+ * enableOfflinePlayerView is set), with "online": false and without ping.
  */
 public class PlayerDetailHandler implements HttpHandler {
 
+    private static final String[] ARMOR_NAMES = {"boots", "leggings", "chestplate", "helmet"};
+    private static final int OFFHAND_SLOT = 40;
+    private static final int DEFAULT_HISTORY_POINTS = 120;
+    private static final int MAX_HISTORY_POINTS = 1000;
+    private static final long DEFAULT_HISTORY_WINDOW_MS = 5 * 60 * 1000;
+
     private final MinePanelBridge plugin;
     private final PluginConfig config;
+    private final InventoryTracker inventoryTracker;
+    private final BudgetedTaskQueue taskQueue;
+    private final OfflinePlayerReader offlinePlayers;
+    private final PlayerHistory history;
 
-    public PlayerDetailHandler(MinePanelBridge plugin, PluginConfig config) {
+    public PlayerDetailHandler(MinePanelBridge plugin, PluginConfig config, InventoryTracker inventoryTracker,
+                               BudgetedTaskQueue taskQueue, OfflinePlayerReader offlinePlayers,
+                               PlayerHistory history) {
         this.plugin = plugin;
         this.config = config;
+        this.inventoryTracker = inventoryTracker;
+        this.taskQueue = taskQueue;
+        this.offlinePlayers = offlinePlayers;
+        this.history = history;
     }
 
     @Override
@@ -57,9 +98,15 @@ public class PlayerDetailHandler implements HttpHandler {
             return;
         }
 
+        // History outlives the session, so it does not need the player online
+        if (subPath.equals("history")) {
+            handleHistory(exchange, uuid);
+            return;
+        }
+
         Player player = Bukkit.getPlayer(uuid);
         if (player == null || !player.isOnline()) {
-            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Player not found or offline\"}");
+            handleOffline(exchange, uuid, subPath);
             return;
         }
 
@@ -82,6 +129,7 @@ public class PlayerDetailHandler implements HttpHandler {
 
         json.addProperty("uuid", player.getUniqueId().toString());
         json.addProperty("name", player.getName());
+        json.addProperty("online", true);
         json.addProperty("world", loc.getWorld().getName());
         json.addProperty("x", Math.round(loc.getX() * 100.0) / 100.0);
         json.addProperty("y", Math.round(loc.getY() * 100.0) / 100.0);
@@ -133,32 +181,97 @@ public class PlayerDetailHandler implements HttpHandler {
             return;
         }
 
-        PlayerInventory inv = player.getInventory();
-        JsonObject result = new JsonObject();
+        UUID uuid = player.getUniqueId();
+        InventoryTracker.State state = inventoryTracker.get(uuid);
+        if (state == null) {
+            // First request for this player: capture on the main thread and start tracking
+            try {
+                state = taskQueue.submit(() -> inventoryTracker.track(uuid)).get(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while capturing inventory", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new IOException("Failed to capture inventory", e);
+            }
+            if (state == null) {
+                HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Player not found or offline\"}");
+                return;
+            }
+        }
+
+        String sinceParam = HttpApiServer.parseQuery(exchange).get("since");
+        long since = -1;
+        if (sinceParam != null) {
+            try {
+                since = Long.parseLong(sinceParam);
+            } catch (NumberFormatException e) {
+                HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid since version\"}");
+                return;
+            }
+        }
+
+        InventoryTracker.State snapshot = state;
+        if (since >= 0 && snapshot.canDiff(since)) {
+            long sinceVersion = since;
+            HttpApiServer.sendJson(exchange, 200, out -> writeInventoryDiff(out, snapshot, sinceVersion));
+        } else {
+            HttpApiServer.sendJson(exchange, 200, out -> writeInventory(out, snapshot.items(), snapshot.version()));
+        }
+    }
+
+    /**
+     * Full inventory: contents (slots 0-35), armor (boots..helmet) and offhand.
+     * Saved inventories of offline players (version -1) carry no version, as
+     * they cannot be diffed.
+     */
+    private static void writeInventory(JsonWriter out, ItemStack[] items, long version) throws IOException {
+        out.beginObject();
+        if (version >= 0) {
+            out.name("version").value(version);
+        } else {
+            out.name("online").value(false);
+        }
+        out.name("full").value(true);
 
         // Main contents (slots 0-35)
-        JsonArray contents = new JsonArray();
+        out.name("contents").beginArray();
         for (int i = 0; i < 36; i++) {
-            ItemStack stack = inv.getItem(i);
-            contents.add(ItemSerializer.serialize(stack, i));
+            ItemSerializer.write(out, items[i], i, null);
         }
-        result.add("contents", contents);
+        out.endArray();
 
         // Armor slots
-        JsonArray armor = new JsonArray();
-        ItemStack[] armorContents = inv.getArmorContents();
-        String[] armorNames = {"boots", "leggings", "chestplate", "helmet"};
-        for (int i = 0; i < armorContents.length; i++) {
-            JsonObject slot = ItemSerializer.serialize(armorContents[i], -1);
-            slot.addProperty("slotName", armorNames[i]);
-            armor.add(slot);
+        out.name("armor").beginArray();
+        for (int i = 0; i < ARMOR_NAMES.length; i++) {
+            ItemSerializer.write(out, items[36 + i], -1, ARMOR_NAMES[i]);
         }
-        result.add("armor", armor);
+        out.endArray();
 
         // Offhand
-        result.add("offhand", ItemSerializer.serialize(inv.getItemInOffHand(), -1));
+        out.name("offhand");
+        ItemSerializer.write(out, items[OFFHAND_SLOT], -1, null);
+
+        out.endObject();
+    }
 
-        HttpApiServer.sendResponse(exchange, 200, result.toString());
+    /**
+     * Only the slots changed after version {@code since}. Each change carries its
+     * inventory slot index (0-35 contents, 36-39 armor, 40 offhand); armor and
+     * offhand changes also carry a slotName.
+     */
+    private static void writeInventoryDiff(JsonWriter out, InventoryTracker.State state, long since) throws IOException {
+        out.beginObject();
+        out.name("version").value(state.version());
+        out.name("full").value(false);
+        out.name("since").value(since);
+        out.name("changes").beginArray();
+        for (int i = 0; i < InventoryTracker.SLOTS; i++) {
+            if (state.slotVersions()[i] <= since) continue;
+            String slotName = i == OFFHAND_SLOT ? "offhand" : i >= 36 ? ARMOR_NAMES[i - 36] : null;
+            ItemSerializer.write(out, state.items()[i], i, slotName);
+        }
+        out.endArray();
+        out.endObject();
     }
 
     private void handleEnderChest(HttpExchange exchange, Player player) throws IOException {
@@ -167,15 +280,256 @@ public class PlayerDetailHandler implements HttpHandler {
             return;
         }
 
-        JsonArray contents = new JsonArray();
-        for (int i = 0; i < player.getEnderChest().getSize(); i++) {
-            ItemStack stack = player.getEnderChest().getItem(i);
-            contents.add(ItemSerializer.serialize(stack, i));
+        Inventory enderChest = player.getEnderChest();
+        HttpApiServer.sendJson(exchange, 200, out -> {
+            out.beginObject();
+            out.name("contents").beginArray();
+            for (int i = 0; i < enderChest.getSize(); i++) {
+                ItemSerializer.write(out, enderChest.getItem(i), i, null);
+            }
+            out.endArray();
+            out.endObject();
+        });
+    }
+
+    /**
+     * Recent history, bucketed into at most {@code points} intervals across
+     * {@code window} (seconds, or with an s/m/h suffix). Each metric is given as
+     * avg/min/max arrays aligned with the shared "t" array of bucket start times;
+     * null marks a bucket without a value (e.g. speed right after a world change).
+     */
+    private void handleHistory(HttpExchange exchange, UUID uuid) throws IOException {
+        if (history == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"History is disabled\"}");
+            return;
+        }
+
+        Map<String, String> query = HttpApiServer.parseQuery(exchange);
+        List<HistoryMetric> metrics = new ArrayList<>();
+        String metricParam = query.get("metric");
+        if (metricParam == null || metricParam.isEmpty()) {
+            metrics.addAll(List.of(HistoryMetric.values()));
+        } else {
+            for (String name : metricParam.split(",")) {
+                HistoryMetric metric = HistoryMetric.fromApiName(name.trim());
+                if (metric == null) {
+                    HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Unknown metric\"}");
+                    return;
+                }
+                if (!metrics.contains(metric)) metrics.add(metric);
+            }
+        }
+
+        long window = parseWindow(query.get("window"));
+        int points = parsePoints(query.get("points"));
+        if (window <= 0 || points <= 0) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid window or points\"}");
+            return;
+        }
+        window = Math.min(window, history.getSpanMillis());
+
+        HistoryBuffer buffer = history.get(uuid);
+        if (buffer == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"No history for this player\"}");
+            return;
+        }
+
+        long to = System.currentTimeMillis();
+        HistoryBuffer.Downsampled series = buffer.downsample(to - window, to, points, metrics);
+        boolean online = Bukkit.getPlayer(uuid) != null;
+        HttpApiServer.sendJson(exchange, 200, out -> {
+            out.beginObject();
+            out.name("uuid").value(uuid.toString());
+            out.name("online").value(online);
+            out.name("sampleIntervalMs").value(history.getSampleIntervalMillis());
+            out.name("from").value(series.from());
+            out.name("to").value(to);
+            out.name("bucketMs").value(series.bucketMillis());
+            out.name("memoryBytes").value(history.getBytesPerPlayer());
+            out.name("t").beginArray();
+            for (long time : series.times()) {
+                out.value(time);
+            }
+            out.endArray();
+            out.name("series").beginObject();
+            for (int m = 0; m < metrics.size(); m++) {
+                out.name(metrics.get(m).apiName()).beginObject();
+                writeColumn(out, "avg", series.avg()[m]);
+                writeColumn(out, "min", series.min()[m]);
+                writeColumn(out, "max", series.max()[m]);
+                out.endObject();
+            }
+            out.endObject();
+            out.endObject();
+        });
+    }
+
+    private static void writeColumn(JsonWriter out, String name, float[] values) throws IOException {
+        out.name(name).beginArray();
+        for (float value : values) {
+            if (Float.isNaN(value)) {
+                out.nullValue();
+            } else {
+                out.value(Math.round(value * 100.0) / 100.0);
+            }
+        }
+        out.endArray();
+    }
+
+    /**
+     * Window length in milliseconds: "300", "300s", "5m" or "1h". -1 if invalid.
+     */
+    private static long parseWindow(String value) {
+        if (value == null || value.isEmpty()) return DEFAULT_HISTORY_WINDOW_MS;
+        long unit = 1000;
+        char suffix = value.charAt(value.length() - 1);
+        if (suffix == 's' || suffix == 'm' || suffix == 'h') {
+            unit = suffix == 'h' ? 3_600_000 : suffix == 'm' ? 60_000 : 1000;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            long amount = Long.parseLong(value);
+            return amount > 0 && amount <= 7 * 24 * 3600 ? amount * unit : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int parsePoints(String value) {
+        if (value == null || value.isEmpty()) return DEFAULT_HISTORY_POINTS;
+        try {
+            int points = Integer.parseInt(value);
+            return points > 0 ? Math.min(points, MAX_HISTORY_POINTS) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Detail, inventory and ender chest of an offline player, from the saved
+     * playerdata file. Read on the HTTP thread; nothing runs on the main thread.
+     */
+    private void handleOffline(HttpExchange exchange, UUID uuid, String subPath) throws IOException {
+        if (offlinePlayers == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Player not found or offline\"}");
+            return;
+        }
+        if (subPath.equals("inventory") && !config.isEnableInventoryView()) {
+            HttpApiServer.sendResponse(exchange, 403, "{\"error\":\"Inventory view is disabled\"}");
+            return;
+        }
+        if (subPath.equals("enderchest") && !config.isEnableEnderChestView()) {
+            HttpApiServer.sendResponse(exchange, 403, "{\"error\":\"Ender chest view is disabled\"}");
+            return;
+        }
+
+        OfflinePlayerData data = offlinePlayers.read(uuid);
+        if (data == null) {
+            HttpApiServer.sendResponse(exchange, 404, "{\"error\":\"Player not found\"}");
+            return;
+        }
+
+        switch (subPath) {
+            case "inventory":
+                HttpApiServer.sendJson(exchange, 200, out -> writeInventory(out, data.inventory(), -1));
+                break;
+            case "enderchest":
+                HttpApiServer.sendJson(exchange, 200, out -> {
+                    out.beginObject();
+                    out.name("online").value(false);
+                    out.name("contents").beginArray();
+                    for (int i = 0; i < data.enderChest().length; i++) {
+                        ItemSerializer.write(out, data.enderChest()[i], i, null);
+                    }
+                    out.endArray();
+                    out.endObject();
+                });
+                break;
+            default:
+                handleOfflineDetail(exchange, data);
+                break;
         }
+    }
 
-        JsonObject result = new JsonObject();
-        result.add("contents", contents);
+    private void handleOfflineDetail(HttpExchange exchange, OfflinePlayerData data) throws IOException {
+        JsonObject json = new JsonObject();
+
+        json.addProperty("uuid", data.uuid().toString());
+        json.addProperty("name", offlineName(data));
+        json.addProperty("online", false);
+        json.addProperty("lastSeen", data.lastModified());
+        json.addProperty("world", worldName(data.dimension()));
+        json.addProperty("x", Math.round(data.x() * 100.0) / 100.0);
+        json.addProperty("y", Math.round(data.y() * 100.0) / 100.0);
+        json.addProperty("z", Math.round(data.z() * 100.0) / 100.0);
+        json.addProperty("yaw", Math.round(data.yaw() * 100.0) / 100.0);
+        json.addProperty("pitch", Math.round(data.pitch() * 100.0) / 100.0);
+        json.addProperty("health", data.health());
+        json.addProperty("maxHealth", data.maxHealth());
+        json.addProperty("food", data.food());
+        json.addProperty("saturation", data.saturation());
+        json.addProperty("expLevel", data.expLevel());
+        json.addProperty("exp", data.exp());
+        json.addProperty("totalExperience", data.totalExperience());
+        json.addProperty("gamemode", data.gameMode());
+        json.addProperty("isOp", isOperator(data.uuid()));
+        json.addProperty("isFlying", data.flying());
+        json.addProperty("isSneaking", false);
+
+        JsonArray effects = new JsonArray();
+        for (OfflinePlayerData.Effect effect : data.effects()) {
+            JsonObject eff = new JsonObject();
+            eff.addProperty("type", effect.type());
+            eff.addProperty("amplifier", effect.amplifier());
+            eff.addProperty("duration", effect.duration());
+            effects.add(eff);
+        }
+        json.add("activePotionEffects", effects);
+
+        JsonObject invSummary = new JsonObject();
+        for (ItemStack stack : data.inventory()) {
+            if (stack != null && !stack.getType().isAir()) {
+                String key = stack.getType().getKey().getKey();
+                int current = invSummary.has(key) ? invSummary.get(key).getAsInt() : 0;
+                invSummary.addProperty(key, current + stack.getAmount());
+            }
+        }
+        json.add("inventorySummary", invSummary);
+
+        HttpApiServer.sendResponse(exchange, 200, json.toString());
+    }
+
+    /**
+     * Name for an offline player without {@link Bukkit#getOfflinePlayer},
+     * whose name lookup can go through the user cache or read the playerdata
+     * file again: the name saved in the file, else the whitelist index's.
+     */
+    private String offlineName(OfflinePlayerData data) {
+        if (data.lastKnownName() != null) return data.lastKnownName();
+        WhitelistIndex index = plugin.getWhitelistIndex();
+        WhitelistIndex.Entry entry = index != null ? index.get(data.uuid()) : null;
+        return entry != null ? entry.name() : null;
+    }
+
+    /**
+     * Whether the UUID is on the ops list. The list is held in memory and is
+     * short, so scanning it avoids resolving an OfflinePlayer for the UUID.
+     */
+    private static boolean isOperator(UUID uuid) {
+        for (OfflinePlayer op : Bukkit.getOperators()) {
+            if (uuid.equals(op.getUniqueId())) return true;
+        }
+        return false;
+    }
 
-        HttpApiServer.sendResponse(exchange, 200, result.toString());
+    /**
+     * Saved dimension key (e.g. "minecraft:the_nether") to the loaded world's
+     * name, or the key itself if no such world is loaded.
+     */
+    private static String worldName(String dimension) {
+        if (dimension == null) return null;
+        NamespacedKey key = NamespacedKey.fromString(dimension);
+        World world = key != null ? Bukkit.getWorld(key) : null;
+        return world != null ? world.getName() : dimension;
     }
 }
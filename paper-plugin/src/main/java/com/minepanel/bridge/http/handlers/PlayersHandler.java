@@ -1,27 +1,100 @@
 package com.minepanel.bridge.http.handlers;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.minepanel.bridge.MinePanelBridge;
 import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.http.ListQuery;
+import com.minepanel.bridge.http.ResponseCache;
+import com.minepanel.bridge.http.ResponseEncoding;
+import com.minepanel.bridge.snapshot.PlayerSnapshot;
+import com.minepanel.bridge.snapshot.ServerSnapshot;
+import com.minepanel.bridge.snapshot.SnapshotService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * GET /api/players
  * Returns a list of all online players with basic info.
+ * Served from the latest main-thread snapshot.
+ *
+ * Optional query parameters:
+ *   world, gamemode, prefix (name, case-insensitive), op -> filters
+ *   fields=name,uuid,ping                                -> projection
+ *   limit, cursor -> paged response {"items":[...],"nextCursor":...,"total":n}
  */
 public class PlayersHandler implements HttpHandler {
 
+    private static final int MAX_LIMIT = 500;
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(JsonWriter out, PlayerSnapshot player) throws IOException;
+    }
+
+    /** Output fields in their canonical order. */
+    private static final Map<String, FieldWriter> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("uuid", (out, p) -> out.value(p.uuid().toString()));
+        FIELDS.put("name", (out, p) -> out.value(p.name()));
+        FIELDS.put("world", (out, p) -> out.value(p.world()));
+        FIELDS.put("x", (out, p) -> out.value(Math.round(p.x() * 100.0) / 100.0));
+        FIELDS.put("y", (out, p) -> out.value(Math.round(p.y() * 100.0) / 100.0));
+        FIELDS.put("z", (out, p) -> out.value(Math.round(p.z() * 100.0) / 100.0));
+        FIELDS.put("yaw", (out, p) -> out.value(Math.round(p.yaw() * 100.0) / 100.0));
+        FIELDS.put("pitch", (out, p) -> out.value(Math.round(p.pitch() * 100.0) / 100.0));
+        FIELDS.put("health", (out, p) -> out.value(p.health()));
+        FIELDS.put("food", (out, p) -> out.value(p.food()));
+        FIELDS.put("expLevel", (out, p) -> out.value(p.expLevel()));
+        FIELDS.put("gamemode", (out, p) -> out.value(p.gamemode()));
+        FIELDS.put("ping", (out, p) -> out.value(p.ping()));
+        FIELDS.put("isOp", (out, p) -> out.value(p.op()));
+    }
+
+    /**
+     * Filters on snapshot fields; null means "any".
+     */
+    private record Filter(String world, String gamemode, String prefix, Boolean op) {
+
+        static Filter parse(Map<String, String> params) {
+            String op = params.get("op");
+            if (op != null && !op.equals("true") && !op.equals("false")) {
+                throw new IllegalArgumentException("Invalid op: use true or false");
+            }
+            String gamemode = params.get("gamemode");
+            String prefix = params.get("prefix");
+            return new Filter(
+                    params.get("world"),
+                    gamemode != null ? gamemode.toUpperCase(Locale.ROOT) : null,
+                    prefix != null ? prefix.toLowerCase(Locale.ROOT) : null,
+                    op != null ? Boolean.valueOf(op) : null);
+        }
+
+        boolean test(PlayerSnapshot player) {
+            return (world == null || world.equals(player.world()))
+                    && (gamemode == null || gamemode.equals(player.gamemode()))
+                    && (prefix == null || player.name().toLowerCase(Locale.ROOT).startsWith(prefix))
+                    && (op == null || op == player.op());
+        }
+    }
+
     private final MinePanelBridge plugin;
+    private final SnapshotService snapshots;
+    private final ResponseCache cache;
 
-    public PlayersHandler(MinePanelBridge plugin) {
+    public PlayersHandler(MinePanelBridge plugin, SnapshotService snapshots, ResponseCache cache) {
         this.plugin = plugin;
+        this.snapshots = snapshots;
+        this.cache = cache;
     }
 
     @Override
@@ -31,30 +104,80 @@ public class PlayersHandler implements HttpHandler {
             return;
         }
 
-        JsonArray players = new JsonArray();
+        ServerSnapshot snapshot = snapshots.getCurrent();
+        ResponseEncoding encoding = ResponseEncoding.negotiate(exchange);
+        Map<String, String> params = HttpApiServer.parseQuery(exchange);
+        if (params.isEmpty()) {
+            HttpApiServer.sendCached(exchange, cache.get("players", encoding, snapshot.version(),
+                    out -> render(out, snapshot.players(), null)));
+            return;
+        }
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            JsonObject pj = new JsonObject();
-            Location loc = player.getLocation();
+        Filter filter;
+        ListQuery query;
+        try {
+            filter = Filter.parse(params);
+            query = ListQuery.parse(params, FIELDS.keySet(), MAX_LIMIT);
+        } catch (IllegalArgumentException e) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":" + new JsonPrimitive(e.getMessage()) + "}");
+            return;
+        }
+
+        String key = query.cacheKey("players", "world", filter.world(), "gamemode", filter.gamemode(),
+                "prefix", filter.prefix(), "op", filter.op() != null ? filter.op().toString() : null);
+        HttpApiServer.sendCached(exchange, cache.get(key, encoding, snapshot.version(),
+                out -> renderQuery(out, snapshot, filter, query)));
+    }
+
+    private static void renderQuery(JsonWriter out, ServerSnapshot snapshot, Filter filter, ListQuery query)
+            throws IOException {
+        List<PlayerSnapshot> matched = new ArrayList<>();
+        for (PlayerSnapshot player : snapshot.players()) {
+            if (filter.test(player)) {
+                matched.add(player);
+            }
+        }
+
+        if (!query.paged()) {
+            render(out, matched, query);
+            return;
+        }
+
+        matched.sort(Comparator.comparing(p -> ListQuery.sortKey(p.name(), p.uuid())));
+        List<PlayerSnapshot> page = new ArrayList<>(query.limit());
+        String nextCursor = null;
+        for (PlayerSnapshot player : matched) {
+            String key = ListQuery.sortKey(player.name(), player.uuid());
+            if (!query.afterCursor(key)) continue;
+            if (page.size() == query.limit()) {
+                nextCursor = ListQuery.sortKey(page.get(page.size() - 1).name(), page.get(page.size() - 1).uuid());
+                break;
+            }
+            page.add(player);
+        }
+
+        out.beginObject();
+        out.name("items");
+        render(out, page, query);
+        out.name("nextCursor").value(nextCursor);
+        out.name("total").value(matched.size());
+        out.endObject();
+    }
 
-            pj.addProperty("uuid", player.getUniqueId().toString());
-            pj.addProperty("name", player.getName());
-            pj.addProperty("world", loc.getWorld().getName());
-            pj.addProperty("x", Math.round(loc.getX() * 100.0) / 100.0);
-            pj.addProperty("y", Math.round(loc.getY() * 100.0) / 100.0);
-            pj.addProperty("z", Math.round(loc.getZ() * 100.0) / 100.0);
-            pj.addProperty("yaw", Math.round(loc.getYaw() * 100.0) / 100.0);
-            pj.addProperty("pitch", Math.round(loc.getPitch() * 100.0) / 100.0);
-            pj.addProperty("health", player.getHealth());
-            pj.addProperty("food", player.getFoodLevel());
-            pj.addProperty("expLevel", player.getLevel());
-            pj.addProperty("gamemode", player.getGameMode().name());
-            pj.addProperty("ping", player.getPing());
-            pj.addProperty("isOp", player.isOp());
+    private static void render(JsonWriter out, List<PlayerSnapshot> players, ListQuery query) throws IOException {
+        out.beginArray();
 
-            players.add(pj);
+        for (PlayerSnapshot player : players) {
+            out.beginObject();
+            for (Map.Entry<String, FieldWriter> field : FIELDS.entrySet()) {
+                if (query == null || query.includes(field.getKey())) {
+                    out.name(field.getKey());
+                    field.getValue().write(out, player);
+                }
+            }
+            out.endObject();
         }
 
-        HttpApiServer.sendResponse(exchange, 200, players.toString());
+        out.endArray();
     }
 }
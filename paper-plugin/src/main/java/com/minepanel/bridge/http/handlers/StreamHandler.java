@@ -0,0 +1,106 @@
+package com.minepanel.bridge.http.handlers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.config.PluginConfig;
+import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.snapshot.PlayerSnapshot;
+import com.minepanel.bridge.snapshot.ServerSnapshot;
+import com.minepanel.bridge.snapshot.SnapshotService;
+import com.minepanel.bridge.stream.EventStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GET /api/stream
+ * Server-Sent Events stream of live updates: an initial "snapshot" event,
+ * then "join", "quit", "move", "health", "gamemode" and "tps" events.
+ * The connection stays open until the client disconnects or falls too far behind.
+ */
+public class StreamHandler implements HttpHandler {
+
+    private static final long HEARTBEAT_MS = 15_000;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final MinePanelBridge plugin;
+    private final PluginConfig config;
+    private final SnapshotService snapshots;
+    private final EventStream stream;
+
+    public StreamHandler(MinePanelBridge plugin, PluginConfig config, SnapshotService snapshots, EventStream stream) {
+        this.plugin = plugin;
+        this.config = config;
+        this.snapshots = snapshots;
+        this.stream = stream;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            HttpApiServer.sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        // A long-lived stream would block every other request on the JDK dispatcher thread
+        if (config.getHttpExecutor() == PluginConfig.ExecutorMode.DEFAULT) {
+            HttpApiServer.sendResponse(exchange, 503,
+                    "{\"error\":\"Streaming requires httpExecutor virtual or fixed\"}");
+            return;
+        }
+
+        EventStream.Client client = stream.connect("snapshot", initialState(snapshots.getCurrent()));
+        if (client == null) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getHttpRetryAfterSeconds()));
+            HttpApiServer.sendResponse(exchange, 503, "{\"error\":\"Too many stream clients\"}");
+            return;
+        }
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+
+            try (OutputStream os = exchange.getResponseBody()) {
+                while (!client.isClosed()) {
+                    byte[] event = client.next(HEARTBEAT_MS);
+                    os.write(event != null ? event : HEARTBEAT);
+                    os.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            stream.disconnect(client);
+            exchange.close();
+        }
+    }
+
+    private static JsonObject initialState(ServerSnapshot snapshot) {
+        JsonArray players = new JsonArray();
+        for (PlayerSnapshot player : snapshot.players()) {
+            JsonObject pj = new JsonObject();
+            pj.addProperty("uuid", player.uuid().toString());
+            pj.addProperty("name", player.name());
+            pj.addProperty("world", player.world());
+            pj.addProperty("x", Math.round(player.x() * 100.0) / 100.0);
+            pj.addProperty("y", Math.round(player.y() * 100.0) / 100.0);
+            pj.addProperty("z", Math.round(player.z() * 100.0) / 100.0);
+            pj.addProperty("health", player.health());
+            pj.addProperty("gamemode", player.gamemode());
+            players.add(pj);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("version", snapshot.version());
+        json.addProperty("tps", snapshot.tps());
+        json.add("players", players);
+        return json;
+    }
+}
@@ -1,44 +1,101 @@
 package com.minepanel.bridge.http.handlers;
 
+import com.destroystokyo.paper.profile.PlayerProfile;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.minepanel.bridge.MinePanelBridge;
 import com.minepanel.bridge.audit.AuditLogger;
+import com.minepanel.bridge.config.PluginConfig;
 import com.minepanel.bridge.http.HttpApiServer;
+import com.minepanel.bridge.http.ListQuery;
+import com.minepanel.bridge.http.ResponseCache;
+import com.minepanel.bridge.http.ResponseEncoding;
+import com.minepanel.bridge.scheduler.BudgetedTaskQueue;
+import com.minepanel.bridge.whitelist.WhitelistIndex;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 /**
  * GET  /api/whitelist        -> list whitelisted players
+ *      ?prefix=&fields=name,uuid        -> filter by name prefix / project fields
+ *      ?limit=&cursor=                  -> paged {"items":[...],"nextCursor":...,"total":n}
+ * GET  /api/whitelist/search?prefix=&limit= -> name typeahead
+ * GET  /api/whitelist/export?format=csv|ndjson -> streamed export
  * POST /api/whitelist/add    -> add player to whitelist
  * POST /api/whitelist/remove -> remove player from whitelist
+ * POST /api/whitelist/bulk   -> {"add":[names],"remove":[names]}
  */
 public class WhitelistHandler implements HttpHandler {
 
     private static final Pattern NICK_PATTERN = Pattern.compile("^[a-zA-Z0-9_]{3,16}$");
+    private static final Set<String> LIST_FIELDS = Set.of("name", "uuid");
+    private static final int MAX_LIMIT = 1000;
+    private static final int SEARCH_DEFAULT_LIMIT = 20;
+    private static final int SEARCH_MAX_LIMIT = 100;
+    /** Profile lookups run in parallel for one bulk request. */
+    private static final int LOOKUP_THREADS = 4;
 
     private final MinePanelBridge plugin;
+    private final PluginConfig config;
     private final AuditLogger auditLogger;
+    private final ResponseCache cache;
+    private final WhitelistIndex index;
+    private final BudgetedTaskQueue taskQueue;
 
-    public WhitelistHandler(MinePanelBridge plugin, AuditLogger auditLogger) {
+    public WhitelistHandler(MinePanelBridge plugin, PluginConfig config, AuditLogger auditLogger,
+                            ResponseCache cache, WhitelistIndex index, BudgetedTaskQueue taskQueue) {
         this.plugin = plugin;
+        this.config = config;
         this.auditLogger = auditLogger;
+        this.cache = cache;
+        this.index = index;
+        this.taskQueue = taskQueue;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         String path = exchange.getRequestURI().getPath();
-        String method = exchange.getRequestMethod().toUpperCase();
+        String method = exchange.getRequestMethod().toUpperCase(Locale.ROOT);
         String actor = exchange.getRequestHeaders().getFirst("X-Panel-Actor");
 
         if (path.equals("/api/whitelist") && method.equals("GET")) {
             handleList(exchange);
+        } else if (path.equals("/api/whitelist/search") && method.equals("GET")) {
+            handleSearch(exchange);
+        } else if (path.equals("/api/whitelist/export") && method.equals("GET")) {
+            handleExport(exchange);
+        } else if (path.equals("/api/whitelist/bulk") && method.equals("POST")) {
+            handleBulk(exchange, actor);
         } else if (path.equals("/api/whitelist/add") && method.equals("POST")) {
             handleAdd(exchange, actor);
         } else if (path.equals("/api/whitelist/remove") && method.equals("POST")) {
@@ -49,14 +106,434 @@ public class WhitelistHandler implements HttpHandler {
     }
 
     private void handleList(HttpExchange exchange) throws IOException {
-        JsonArray list = new JsonArray();
-        for (OfflinePlayer player : Bukkit.getWhitelistedPlayers()) {
-            JsonObject entry = new JsonObject();
-            entry.addProperty("name", player.getName());
-            entry.addProperty("uuid", player.getUniqueId().toString());
-            list.add(entry);
-        }
-        HttpApiServer.sendResponse(exchange, 200, list.toString());
+        Map<String, String> params = HttpApiServer.parseQuery(exchange);
+        ListQuery query;
+        try {
+            query = ListQuery.parse(params, LIST_FIELDS, MAX_LIMIT);
+        } catch (IllegalArgumentException e) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":" + new JsonPrimitive(e.getMessage()) + "}");
+            return;
+        }
+        String prefix = params.get("prefix");
+        String prefixLower = prefix != null && !prefix.isBlank() ? prefix.toLowerCase(Locale.ROOT) : null;
+
+        index.ensureReady();
+        long version = index.getVersion();
+        ResponseEncoding encoding = ResponseEncoding.negotiate(exchange);
+        String key = query.cacheKey("whitelist", "prefix", prefixLower);
+
+        // Unchanged whitelist: answer 304 without touching the index
+        if (HttpApiServer.sendNotModified(exchange, cache.currentEtag(key, encoding, version))) {
+            return;
+        }
+
+        HttpApiServer.sendCached(exchange, cache.get(key, encoding, version,
+                out -> renderList(out, prefixLower, query)));
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        Map<String, String> params = HttpApiServer.parseQuery(exchange);
+        String prefix = params.getOrDefault("prefix", "");
+        int limit = SEARCH_DEFAULT_LIMIT;
+        String limitParam = params.get("limit");
+        if (limitParam != null && !limitParam.isBlank()) {
+            try {
+                limit = Math.max(1, Math.min(SEARCH_MAX_LIMIT, Integer.parseInt(limitParam)));
+            } catch (NumberFormatException e) {
+                HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid limit\"}");
+                return;
+            }
+        }
+
+        index.ensureReady();
+        int max = limit;
+        HttpApiServer.sendJson(exchange, 200, out -> {
+            out.beginArray();
+            int count = 0;
+            for (WhitelistIndex.Entry entry : index.withPrefix(prefix).values()) {
+                if (count++ == max) break;
+                out.beginObject();
+                out.name("name").value(entry.name());
+                out.name("uuid").value(entry.uuid().toString());
+                out.endObject();
+            }
+            out.endArray();
+        });
+    }
+
+    private void handleExport(HttpExchange exchange) throws IOException {
+        String format = HttpApiServer.parseQuery(exchange).getOrDefault("format", "csv");
+        boolean csv;
+        if (format.equals("csv")) {
+            csv = true;
+        } else if (format.equals("ndjson")) {
+            csv = false;
+        } else {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid format: use csv or ndjson\"}");
+            return;
+        }
+
+        index.ensureReady();
+        exchange.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"whitelist." + format + "\"");
+        String contentType = csv ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8";
+        // Names are limited to [A-Za-z0-9_], so neither format needs quoting or escaping
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                HttpApiServer.openBody(exchange, 200, contentType), StandardCharsets.UTF_8), 8192);
+        if (csv) {
+            out.write("name,uuid\n");
+        }
+        for (WhitelistIndex.Entry entry : index.all().values()) {
+            String name = entry.name();
+            if (csv) {
+                out.write(name != null ? name : "");
+                out.write(',');
+                out.write(entry.uuid().toString());
+            } else {
+                out.write(name != null ? "{\"name\":\"" + name + "\"" : "{\"name\":null");
+                out.write(",\"uuid\":\"");
+                out.write(entry.uuid().toString());
+                out.write("\"}");
+            }
+            out.write('\n');
+        }
+        out.close();
+    }
+
+    /**
+     * Apply many whitelist changes in one request. All names are validated
+     * before anything is changed. Names to add are resolved to profiles here,
+     * off the main thread; the changes themselves go through the whitelist API
+     * on the budgeted main-thread queue, one change per task. Each change
+     * rewrites whitelist.json and the API has no way to defer the save, so
+     * this is the smallest unit the tick budget can be checked between.
+     */
+    private void handleBulk(HttpExchange exchange, String actor) throws IOException {
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(HttpApiServer.readBody(exchange)).getAsJsonObject();
+        } catch (Exception e) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Invalid JSON\"}");
+            return;
+        }
+
+        Map<String, String> add = new LinkedHashMap<>();
+        Map<String, String> remove = new LinkedHashMap<>();
+        JsonArray invalid = new JsonArray();
+        collectNames(json.get("add"), add, invalid);
+        collectNames(json.get("remove"), remove, invalid);
+
+        if (!invalid.isEmpty()) {
+            JsonObject resp = new JsonObject();
+            resp.addProperty("error", "Invalid player names");
+            resp.add("invalid", invalid);
+            HttpApiServer.sendResponse(exchange, 400, resp.toString());
+            return;
+        }
+        if (add.isEmpty() && remove.isEmpty()) {
+            HttpApiServer.sendResponse(exchange, 400, "{\"error\":\"Nothing to add or remove\"}");
+            return;
+        }
+        if (add.size() + remove.size() > config.getWhitelistBulkMaxSize()) {
+            HttpApiServer.sendResponse(exchange, 400,
+                    "{\"error\":\"Too many names (max " + config.getWhitelistBulkMaxSize() + ")\"}");
+            return;
+        }
+        for (String key : add.keySet()) {
+            if (remove.containsKey(key)) {
+                HttpApiServer.sendResponse(exchange, 400,
+                        "{\"error\":\"Name in both add and remove: " + add.get(key) + "\"}");
+                return;
+            }
+        }
+
+        // One deadline covers name lookups and the queued changes
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getWhitelistBulkTimeoutMs());
+
+        // Resolve names to UUIDs without touching the main thread
+        List<UUID> toAdd = new ArrayList<>(add.size());
+        List<UUID> toRemove = new ArrayList<>(remove.size());
+        List<String> lookups = new ArrayList<>();
+        JsonArray unresolved = new JsonArray();
+        JsonArray timedOut = new JsonArray();
+        int unchanged = 0;
+        for (String name : add.values()) {
+            WhitelistIndex.Entry existing = index.find(name);
+            if (existing != null) {
+                unchanged++;
+                continue;
+            }
+            OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(name);
+            if (cached != null) {
+                toAdd.add(cached.getUniqueId());
+            } else {
+                lookups.add(name);
+            }
+        }
+        lookupProfiles(lookups, deadline, toAdd, unresolved, timedOut);
+        for (String name : remove.values()) {
+            WhitelistIndex.Entry existing = index.find(name);
+            if (existing == null) {
+                unchanged++;
+            } else {
+                toRemove.add(existing.uuid());
+            }
+        }
+
+        // Queue the changes; the queue spreads them across ticks
+        List<Change> changes = new ArrayList<>(toAdd.size() + toRemove.size());
+        queueChanges(toAdd, true, changes);
+        queueChanges(toRemove, false, changes);
+
+        int added = 0;
+        int removed = 0;
+        int pending = timedOut.size();
+        int failed = 0;
+        for (Change change : changes) {
+            boolean changed;
+            try {
+                changed = change.await(deadline);
+            } catch (TimeoutException e) {
+                pending++;
+                continue;
+            } catch (ExecutionException e) {
+                plugin.getLogger().warning("Bulk whitelist change failed: " + e.getCause());
+                failed++;
+                continue;
+            }
+            if (!changed) {
+                unchanged++;
+            } else if (change.whitelisted) {
+                added++;
+            } else {
+                removed++;
+            }
+        }
+
+        auditLogger.log(actor, "/api/whitelist/bulk", "WHITELIST_BULK",
+                "added=" + added + " removed=" + removed + " unchanged=" + unchanged
+                        + " unresolved=" + unresolved.size() + " timedOut=" + timedOut.size() + " pending=" + pending + " failed=" + failed
+                        + " add=" + String.join(",", add.values())
+                        + " remove=" + String.join(",", remove.values()));
+
+        JsonObject resp = new JsonObject();
+        resp.addProperty("ok", pending == 0 && failed == 0);
+        resp.addProperty("added", added);
+        resp.addProperty("removed", removed);
+        resp.addProperty("unchanged", unchanged);
+        resp.addProperty("pending", pending);
+        resp.addProperty("failed", failed);
+        resp.add("unresolved", unresolved);
+        resp.add("timedOut", timedOut);
+        HttpApiServer.sendResponse(exchange, 200, resp.toString());
+    }
+
+    /**
+     * Add the names in a JSON array to {@code into}, keyed by lowercase name so
+     * duplicates collapse. Invalid entries are reported in {@code invalid}.
+     */
+    private static void collectNames(JsonElement element, Map<String, String> into, JsonArray invalid) {
+        if (element == null || element.isJsonNull()) return;
+        if (!element.isJsonArray()) {
+            invalid.add(element.toString());
+            return;
+        }
+        for (JsonElement item : element.getAsJsonArray()) {
+            String name = item.isJsonPrimitive() ? item.getAsString() : null;
+            if (name == null || !NICK_PATTERN.matcher(name).matches()) {
+                invalid.add(name != null ? name : item.toString());
+            } else {
+                into.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+            }
+        }
+    }
+
+    /**
+     * Look up the UUIDs of names missing from the server's profile cache until
+     * {@code deadline}. Each lookup can be a Mojang request, so they run a few
+     * at a time on a pool of their own rather than one after another on the
+     * request thread. Names with no profile go to {@code unresolved}, and
+     * names whose lookup had not finished by the deadline go to {@code timedOut}.
+     */
+    private void lookupProfiles(List<String> names, long deadline, List<UUID> resolved,
+                                JsonArray unresolved, JsonArray timedOut) {
+        if (names.isEmpty()) return;
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(LOOKUP_THREADS, names.size()), r -> {
+            Thread thread = new Thread(r, "MinePanel-Lookup-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<UUID>> futures = new ArrayList<>(names.size());
+            for (String name : names) {
+                futures.add(executor.submit(() -> lookupProfile(name)));
+            }
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                try {
+                    UUID uuid = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (uuid != null) {
+                        resolved.add(uuid);
+                    } else {
+                        unresolved.add(name);
+                    }
+                } catch (TimeoutException e) {
+                    timedOut.add(name);
+                } catch (ExecutionException e) {
+                    plugin.getLogger().warning("Profile lookup for " + name + " failed: " + e.getCause());
+                    unresolved.add(name);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    timedOut.add(name);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Complete a profile by name. Blocking; never call on the main thread.
+     */
+    private static UUID lookupProfile(String name) {
+        PlayerProfile profile = Bukkit.createProfile(name);
+        return profile.complete(false) ? profile.getId() : null;
+    }
+
+    /**
+     * Queue one whitelist change per UUID.
+     */
+    private void queueChanges(List<UUID> uuids, boolean whitelisted, List<Change> changes) {
+        for (UUID uuid : uuids) {
+            Change change = new Change(uuid, whitelisted);
+            change.future = taskQueue.submit(change::apply);
+            changes.add(change);
+        }
+    }
+
+    /**
+     * One queued whitelist change. The main thread claims it to apply it, and
+     * the request thread claims it to withdraw it at the deadline; whichever
+     * comes first decides the outcome, so a change that has started is waited
+     * for rather than reported as pending while it is made.
+     */
+    private static final class Change {
+        private final UUID uuid;
+        private final boolean whitelisted;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<Boolean> future;
+
+        Change(UUID uuid, boolean whitelisted) {
+            this.uuid = uuid;
+            this.whitelisted = whitelisted;
+        }
+
+        /**
+         * Main thread: apply the change unless withdrawn.
+         *
+         * @return whether the player actually changed state
+         */
+        private boolean apply() {
+            if (!claimed.compareAndSet(false, true)) return false;
+            OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+            if (player.isWhitelisted() == whitelisted) return false;
+            player.setWhitelisted(whitelisted);
+            return true;
+        }
+
+        /**
+         * Wait for the change until {@code deadline}, then withdraw it if the
+         * main thread has not started it.
+         *
+         * @throws TimeoutException if the change was withdrawn or cancelled and will not run
+         */
+        boolean await(long deadline) throws ExecutionException, TimeoutException {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (CancellationException e) {
+                // The queue was stopped before the change ran
+                throw new TimeoutException();
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                    throw new TimeoutException();
+                }
+            }
+            // Already running on the main thread; one change is short, so wait it out
+            boolean interrupted = Thread.interrupted();
+            try {
+                while (true) {
+                    try {
+                        return future.get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Write entries in sort-key order, as a plain array or, when paged, as a
+     * page after the cursor. Both the prefix range and the cursor position are
+     * skip-list lookups, so a page costs O(log n + limit) plus, once per
+     * whitelist version and prefix, a walk of the range to count it for
+     * {@code total} (see {@link WhitelistIndex#count}).
+     */
+    private void renderList(JsonWriter out, String prefix, ListQuery query) throws IOException {
+        NavigableMap<String, WhitelistIndex.Entry> matched = index.withPrefix(prefix);
+        if (!query.paged()) {
+            writeEntries(out, matched.values(), query);
+            return;
+        }
+
+        NavigableMap<String, WhitelistIndex.Entry> rest = query.cursor() != null
+                ? matched.tailMap(query.cursor(), false) : matched;
+        List<WhitelistIndex.Entry> page = new ArrayList<>(Math.min(query.limit(), 256));
+        String lastKey = null;
+        String nextCursor = null;
+        for (Map.Entry<String, WhitelistIndex.Entry> e : rest.entrySet()) {
+            if (page.size() == query.limit()) {
+                nextCursor = lastKey;
+                break;
+            }
+            page.add(e.getValue());
+            lastKey = e.getKey();
+        }
+
+        out.beginObject();
+        out.name("items");
+        writeEntries(out, page, query);
+        out.name("nextCursor").value(nextCursor);
+        out.name("total").value(index.count(prefix));
+        out.endObject();
+    }
+
+    private static void writeEntries(JsonWriter out, Iterable<WhitelistIndex.Entry> entries, ListQuery query)
+            throws IOException {
+        out.beginArray();
+        for (WhitelistIndex.Entry entry : entries) {
+            out.beginObject();
+            if (query.includes("name")) {
+                out.name("name").value(entry.name());
+            }
+            if (query.includes("uuid")) {
+                out.name("uuid").value(entry.uuid().toString());
+            }
+            out.endObject();
+        }
+        out.endArray();
     }
 
     private void handleAdd(HttpExchange exchange, String actor) throws IOException {
@@ -76,7 +553,7 @@ public class WhitelistHandler implements HttpHandler {
         }
 
         // Execute whitelist add on main thread
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        plugin.getMainThreadScheduler().runTask("whitelist", () -> {
             Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), "whitelist add " + name);
         });
 
@@ -104,7 +581,7 @@ public class WhitelistHandler implements HttpHandler {
             return;
         }
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
+        plugin.getMainThreadScheduler().runTask("whitelist", () -> {
             Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), "whitelist remove " + name);
         });
 
@@ -0,0 +1,206 @@
+package com.minepanel.bridge.inventory;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player inventory versioning for players whose inventory is being watched
+ * through the panel. Each slot remembers the version at which it last changed,
+ * so a client that already holds version N only needs the slots changed since N.
+ *
+ * Tracking starts on the first inventory request for a player and ends after
+ * the player goes offline or nobody has asked for it for a while. Inventory
+ * events mark tracked players dirty and they are re-compared on the next tick;
+ * a once-per-second sweep also catches changes no event reports (e.g. /give).
+ */
+public class InventoryTracker {
+
+    /** Slots 0-35 main inventory, 36-39 boots..helmet, 40 offhand (PlayerInventory indices). */
+    public static final int SLOTS = 41;
+
+    private static final long SWEEP_INTERVAL_TICKS = 20;
+
+    /**
+     * Immutable view of a tracked inventory. Items are private clones and are
+     * safe to serialize from any thread.
+     */
+    public record State(long baseVersion, long version, long[] slotVersions, ItemStack[] items) {
+
+        /** Whether a client holding {@code since} can be answered with a diff. */
+        public boolean canDiff(long since) {
+            return since >= baseVersion && since <= version;
+        }
+    }
+
+    private static final class Tracked {
+        volatile State state;
+        volatile long lastRequested;
+    }
+
+    private final MinePanelBridge plugin;
+    private final long idleMillis;
+    private final Map<UUID, Tracked> tracked = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = new HashSet<>();
+    /** Global so a player tracked again never reuses versions a client may still hold. */
+    private long versionCounter;
+    private long ticks;
+    private BukkitTask task;
+
+    public InventoryTracker(MinePanelBridge plugin, long idleSeconds) {
+        this.plugin = plugin;
+        this.idleMillis = Math.max(1, idleSeconds) * 1000L;
+    }
+
+    public void start() {
+        task = plugin.getMainThreadScheduler().runTaskTimer("inventory", this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        tracked.clear();
+    }
+
+    /**
+     * Current state for a tracked player, or null if the player is not tracked yet.
+     * Counts as a request for idle-expiry purposes. Safe to call from any thread.
+     */
+    public State get(UUID uuid) {
+        Tracked entry = tracked.get(uuid);
+        if (entry == null) return null;
+        entry.lastRequested = System.currentTimeMillis();
+        return entry.state;
+    }
+
+    /**
+     * Start tracking a player and capture the full inventory. Main thread only.
+     *
+     * @return the initial state, or null if the player is offline
+     */
+    public State track(UUID uuid) {
+        Tracked entry = tracked.get(uuid);
+        if (entry != null) {
+            entry.lastRequested = System.currentTimeMillis();
+            return entry.state;
+        }
+
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || !player.isOnline()) return null;
+
+        long version = ++versionCounter;
+        long[] slotVersions = new long[SLOTS];
+        ItemStack[] items = new ItemStack[SLOTS];
+        PlayerInventory inv = player.getInventory();
+        for (int i = 0; i < SLOTS; i++) {
+            items[i] = copy(inv.getItem(i));
+            slotVersions[i] = version;
+        }
+
+        entry = new Tracked();
+        entry.state = new State(version, version, slotVersions, items);
+        entry.lastRequested = System.currentTimeMillis();
+        tracked.put(uuid, entry);
+        return entry.state;
+    }
+
+    /**
+     * Mark a player's inventory as possibly changed. Main thread only.
+     */
+    public void markDirty(UUID uuid) {
+        if (tracked.containsKey(uuid)) {
+            dirty.add(uuid);
+        }
+    }
+
+    public void untrack(UUID uuid) {
+        tracked.remove(uuid);
+        dirty.remove(uuid);
+    }
+
+    public int getTrackedCount() {
+        return tracked.size();
+    }
+
+    private void tick() {
+        if (tracked.isEmpty()) {
+            dirty.clear();
+            return;
+        }
+
+        if (++ticks % SWEEP_INTERVAL_TICKS == 0) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<UUID, Tracked>> it = tracked.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<UUID, Tracked> e = it.next();
+                if (now - e.getValue().lastRequested > idleMillis) {
+                    it.remove();
+                } else {
+                    dirty.add(e.getKey());
+                }
+            }
+        }
+
+        for (UUID uuid : dirty) {
+            Tracked entry = tracked.get(uuid);
+            if (entry == null) continue;
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !player.isOnline()) {
+                tracked.remove(uuid);
+                continue;
+            }
+            rescan(entry, player.getInventory());
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Compare every slot with the last published state and publish a new state
+     * if anything changed.
+     */
+    private void rescan(Tracked entry, PlayerInventory inv) {
+        State previous = entry.state;
+        long[] slotVersions = null;
+        ItemStack[] items = null;
+        long version = 0;
+
+        for (int i = 0; i < SLOTS; i++) {
+            ItemStack current = inv.getItem(i);
+            if (Objects.equals(normalize(current), previous.items()[i])) continue;
+
+            if (slotVersions == null) {
+                version = ++versionCounter;
+                slotVersions = previous.slotVersions().clone();
+                items = previous.items().clone();
+            }
+            slotVersions[i] = version;
+            items[i] = copy(current);
+        }
+
+        if (slotVersions != null) {
+            entry.state = new State(previous.baseVersion(), version, slotVersions, items);
+        }
+    }
+
+    private static ItemStack normalize(ItemStack stack) {
+        return stack == null || stack.getType().isAir() ? null : stack;
+    }
+
+    private static ItemStack copy(ItemStack stack) {
+        ItemStack normalized = normalize(stack);
+        return normalized == null ? null : normalized.clone();
+    }
+}
@@ -0,0 +1,41 @@
+package com.minepanel.bridge.lag;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one completed lag scan. Immutable; kept until the next scan finishes.
+ *
+ * @param id            increasing scan number, used as the cache version
+ * @param ticks         ticks the scan was spread over
+ * @param busyMicros    main-thread time spent scanning, in total
+ * @param entityTypes   entity counts by type, largest first
+ * @param tileTypes     tile entity counts by block type, largest first
+ * @param hotspots      chunks with the most entities plus tile entities, largest first
+ */
+public record LagReport(
+        long id,
+        long startedAt,
+        long finishedAt,
+        int ticks,
+        long busyMicros,
+        int chunksScanned,
+        int totalEntities,
+        int totalTileEntities,
+        Map<String, Integer> entityTypes,
+        Map<String, Integer> tileTypes,
+        List<Hotspot> hotspots
+) {
+
+    /**
+     * One chunk of the top-N. {@code types} counts entities and tile entities
+     * together, largest first.
+     */
+    public record Hotspot(String world, int chunkX, int chunkZ, int entities, int tileEntities,
+                          Map<String, Integer> types) {
+
+        public int total() {
+            return entities + tileEntities;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.minepanel.bridge.lag;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Walks every loaded chunk of every world, a few chunks per tick, counting
+ * entities and tile entities by type, and publishes a {@link LagReport} with
+ * the busiest chunks once all worlds are done.
+ *
+ * Each tick the scan stops at the first chunk boundary after its microsecond
+ * budget is spent (at least one chunk is scanned per tick so it always
+ * finishes). Tile entities are read without block state snapshots. Only the
+ * current top-N chunks keep a per-type breakdown, so memory does not grow with
+ * the number of chunks.
+ */
+public class LagScanner {
+
+    /** Types listed per hotspot. */
+    private static final int HOTSPOT_TYPES = 8;
+
+    /**
+     * State of the running scan, or of the last one if none is running.
+     */
+    public record Progress(boolean running, long startedAt, int worldsDone, int worldsTotal,
+                           int chunksScanned, int ticks) {}
+
+    private final MinePanelBridge plugin;
+    private final long budgetNanos;
+    private final int topChunks;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LagReport report;
+    private volatile Progress progress = new Progress(false, 0, 0, 0, 0, 0);
+    private long scanCounter;
+    private BukkitTask task;
+
+    // Scan state, main thread only
+    private List<World> worlds;
+    private int worldIndex;
+    private Chunk[] chunks;
+    private int chunkIndex;
+    private long startedAt;
+    private int ticks;
+    private long busyNanos;
+    private int chunksScanned;
+    private int totalEntities;
+    private int totalTileEntities;
+    private Map<EntityType, int[]> entityCounts;
+    private Map<Material, int[]> tileCounts;
+    private PriorityQueue<LagReport.Hotspot> top;
+
+    public LagScanner(MinePanelBridge plugin, long budgetMicros, int topChunks) {
+        this.plugin = plugin;
+        this.budgetNanos = Math.max(50, budgetMicros) * 1000L;
+        this.topChunks = Math.max(1, topChunks);
+    }
+
+    /**
+     * Start a scan on the next tick. Safe to call from any thread.
+     *
+     * @return false if a scan is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        progress = new Progress(true, System.currentTimeMillis(), 0, 0, 0, 0);
+        plugin.getMainThreadScheduler().runTask("lagscan", this::begin);
+        return true;
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        reset();
+        running.set(false);
+    }
+
+    /** Latest completed report, or null if no scan has finished yet. */
+    public LagReport getReport() {
+        return report;
+    }
+
+    public Progress getProgress() {
+        return progress;
+    }
+
+    private void begin() {
+        worlds = new ArrayList<>(Bukkit.getWorlds());
+        worldIndex = 0;
+        chunks = null;
+        chunkIndex = 0;
+        startedAt = System.currentTimeMillis();
+        ticks = 0;
+        busyNanos = 0;
+        chunksScanned = 0;
+        totalEntities = 0;
+        totalTileEntities = 0;
+        entityCounts = new HashMap<>();
+        tileCounts = new HashMap<>();
+        top = new PriorityQueue<>(topChunks + 1, Comparator.comparingInt(LagReport.Hotspot::total));
+        task = plugin.getMainThreadScheduler().runTaskTimer("lagscan", this::step, 1L, 1L);
+    }
+
+    private void step() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        boolean more;
+        do {
+            more = scanNext();
+        } while (more && System.nanoTime() < deadline);
+        busyNanos += System.nanoTime() - start;
+        ticks++;
+
+        if (more) {
+            progress = new Progress(true, startedAt, Math.max(0, worldIndex - 1), worlds.size(), chunksScanned, ticks);
+        } else {
+            finish();
+        }
+    }
+
+    /**
+     * Scan the next loaded chunk, moving on to the next world when needed.
+     * Returns false once every world is done.
+     */
+    private boolean scanNext() {
+        while (chunks == null || chunkIndex >= chunks.length) {
+            if (worldIndex >= worlds.size()) return false;
+            World world = worlds.get(worldIndex++);
+            // Skip worlds unloaded since the scan started
+            chunks = Bukkit.getWorld(world.getName()) == world ? world.getLoadedChunks() : new Chunk[0];
+            chunkIndex = 0;
+        }
+
+        Chunk chunk = chunks[chunkIndex];
+        chunks[chunkIndex++] = null;
+        if (chunk.isLoaded()) {
+            scanChunk(chunk);
+        }
+        return true;
+    }
+
+    private void scanChunk(Chunk chunk) {
+        Entity[] entities = chunk.getEntities();
+        BlockState[] tiles = chunk.getTileEntities(false);
+        chunksScanned++;
+        totalEntities += entities.length;
+        totalTileEntities += tiles.length;
+        for (Entity entity : entities) {
+            entityCounts.computeIfAbsent(entity.getType(), t -> new int[1])[0]++;
+        }
+        for (BlockState tile : tiles) {
+            tileCounts.computeIfAbsent(tile.getType(), t -> new int[1])[0]++;
+        }
+
+        int total = entities.length + tiles.length;
+        if (total == 0 || (top.size() >= topChunks && total <= top.peek().total())) return;
+
+        Map<String, int[]> types = new HashMap<>();
+        for (Entity entity : entities) {
+            types.computeIfAbsent(entityName(entity.getType()), t -> new int[1])[0]++;
+        }
+        for (BlockState tile : tiles) {
+            types.computeIfAbsent(tile.getType().getKey().getKey(), t -> new int[1])[0]++;
+        }
+        top.add(new LagReport.Hotspot(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(),
+                entities.length, tiles.length, sorted(types, Function.identity(), HOTSPOT_TYPES)));
+        if (top.size() > topChunks) {
+            top.poll();
+        }
+    }
+
+    private void finish() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        List<LagReport.Hotspot> hotspots = new ArrayList<>(top);
+        hotspots.sort(Comparator.comparingInt(LagReport.Hotspot::total).reversed());
+        report = new LagReport(
+                ++scanCounter,
+                startedAt,
+                System.currentTimeMillis(),
+                ticks,
+                busyNanos / 1000,
+                chunksScanned,
+                totalEntities,
+                totalTileEntities,
+                sorted(entityCounts, LagScanner::entityName, Integer.MAX_VALUE),
+                sorted(tileCounts, material -> material.getKey().getKey(), Integer.MAX_VALUE),
+                List.copyOf(hotspots));
+        progress = new Progress(false, startedAt, worlds.size(), worlds.size(), chunksScanned, ticks);
+
+        reset();
+        running.set(false);
+    }
+
+    private void reset() {
+        worlds = null;
+        chunks = null;
+        entityCounts = null;
+        tileCounts = null;
+        top = null;
+    }
+
+    private static String entityName(EntityType type) {
+        return type.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Counts as an insertion-ordered map, largest first, cut to {@code limit} entries.
+     */
+    private static <K> Map<String, Integer> sorted(Map<K, int[]> counts, Function<K, String> name, int limit) {
+        List<Map.Entry<K, int[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<K, int[]> entry : entries) {
+            if (result.size() >= limit) break;
+            result.merge(name.apply(entry.getKey()), entry.getValue()[0], Integer::sum);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+package com.minepanel.bridge.listener;
+
+import com.google.gson.JsonObject;
+import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.stream.EventStream;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityRegainHealthEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Feeds the {@link EventStream} from Bukkit events. All state here is touched
+ * only on the main thread. Work is skipped entirely while no client is connected.
+ */
+public class PlayerActivityListener implements Listener {
+
+    private final MinePanelBridge plugin;
+    private final EventStream stream;
+    private final double moveThresholdSquared;
+
+    /** Last position published per player, used to apply the move threshold. */
+    private final Map<UUID, Location> lastPublished = new HashMap<>();
+    /** Players whose health changed since the last flush. */
+    private final Set<UUID> healthDirty = new HashSet<>();
+    private BukkitTask task;
+
+    public PlayerActivityListener(MinePanelBridge plugin, EventStream stream, double moveThreshold) {
+        this.plugin = plugin;
+        this.stream = stream;
+        this.moveThresholdSquared = moveThreshold * moveThreshold;
+    }
+
+    /**
+     * Schedule the once-per-second task that publishes TPS samples and
+     * coalesced health changes.
+     */
+    public void start() {
+        task = plugin.getMainThreadScheduler().runTaskTimer("activity", this::tick, 20L, 20L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        if (!stream.hasClients()) return;
+        Player player = event.getPlayer();
+        Location loc = player.getLocation();
+        lastPublished.put(player.getUniqueId(), loc);
+
+        JsonObject json = position(player, loc);
+        json.addProperty("name", player.getName());
+        json.addProperty("health", player.getHealth());
+        json.addProperty("gamemode", player.getGameMode().name());
+        stream.publish("join", json);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        lastPublished.remove(player.getUniqueId());
+        healthDirty.remove(player.getUniqueId());
+        if (!stream.hasClients()) return;
+
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", player.getUniqueId().toString());
+        json.addProperty("name", player.getName());
+        stream.publish("quit", json);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (!stream.hasClients()) return;
+        Location to = event.getTo();
+        Player player = event.getPlayer();
+        Location last = lastPublished.get(player.getUniqueId());
+
+        if (last != null && last.getWorld() == to.getWorld()) {
+            double dx = to.getX() - last.getX();
+            double dy = to.getY() - last.getY();
+            double dz = to.getZ() - last.getZ();
+            if (dx * dx + dy * dy + dz * dz < moveThresholdSquared) {
+                return;
+            }
+        }
+
+        lastPublished.put(player.getUniqueId(), to.clone());
+        stream.publish("move", position(player, to));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player player && stream.hasClients()) {
+            healthDirty.add(player.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onRegainHealth(EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof Player player && stream.hasClients()) {
+            healthDirty.add(player.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGameModeChange(PlayerGameModeChangeEvent event) {
+        if (!stream.hasClients()) return;
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", event.getPlayer().getUniqueId().toString());
+        json.addProperty("gamemode", event.getNewGameMode().name());
+        stream.publish("gamemode", json);
+    }
+
+    private void tick() {
+        if (!stream.hasClients()) {
+            healthDirty.clear();
+            return;
+        }
+
+        // Damage/regain events fire before health is applied, so read it a tick later
+        for (UUID uuid : healthDirty) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null) continue;
+            JsonObject json = new JsonObject();
+            json.addProperty("uuid", uuid.toString());
+            json.addProperty("health", player.getHealth());
+            json.addProperty("maxHealth", player.getMaxHealth());
+            stream.publish("health", json);
+        }
+        healthDirty.clear();
+
+        double[] tps = Bukkit.getServer().getTPS();
+        JsonObject json = new JsonObject();
+        json.addProperty("tps", Math.round(tps[0] * 100.0) / 100.0);
+        json.addProperty("onlinePlayers", Bukkit.getOnlinePlayers().size());
+        json.addProperty("timestamp", System.currentTimeMillis());
+        stream.publish("tps", json);
+    }
+
+    private static JsonObject position(Player player, Location loc) {
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", player.getUniqueId().toString());
+        json.addProperty("world", loc.getWorld().getName());
+        json.addProperty("x", Math.round(loc.getX() * 100.0) / 100.0);
+        json.addProperty("y", Math.round(loc.getY() * 100.0) / 100.0);
+        json.addProperty("z", Math.round(loc.getZ() * 100.0) / 100.0);
+        return json;
+    }
+}
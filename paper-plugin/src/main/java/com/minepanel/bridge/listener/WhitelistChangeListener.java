@@ -0,0 +1,33 @@
+package com.minepanel.bridge.listener;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.minepanel.bridge.whitelist.WhitelistIndex;
+import io.papermc.paper.event.server.WhitelistStateUpdateEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Applies whitelist additions and removals to the {@link WhitelistIndex} as
+ * they happen, whether they come from the panel, the console or another plugin.
+ */
+public class WhitelistChangeListener implements Listener {
+
+    private final WhitelistIndex index;
+
+    public WhitelistChangeListener(WhitelistIndex index) {
+        this.index = index;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWhitelistUpdate(WhitelistStateUpdateEvent event) {
+        PlayerProfile profile = event.getPlayerProfile();
+        if (profile.getId() == null) return;
+
+        if (event.getStatus() == WhitelistStateUpdateEvent.WhitelistStatus.ADDED) {
+            index.put(profile.getName(), profile.getId());
+        } else {
+            index.remove(profile.getId());
+        }
+    }
+}
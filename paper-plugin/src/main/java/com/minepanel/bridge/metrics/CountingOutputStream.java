@@ -0,0 +1,47 @@
+package com.minepanel.bridge.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes writes through and adds the byte count to a route's metrics.
+ *
+ * This is the response body of every exchange, so it is also where a response
+ * is aborted: after {@link #abort()}, closing fails without finishing the
+ * underlying stream, and the HTTP server drops the connection.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private final RouteMetrics metrics;
+    private volatile boolean aborted;
+
+    public CountingOutputStream(OutputStream out, RouteMetrics metrics) {
+        super(out);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        metrics.addBytes(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        metrics.addBytes(len);
+    }
+
+    public void abort() {
+        aborted = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (aborted) {
+            throw new IOException("Response aborted");
+        }
+        super.close();
+    }
+}
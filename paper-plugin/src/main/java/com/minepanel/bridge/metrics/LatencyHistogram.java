@@ -0,0 +1,45 @@
+package com.minepanel.bridge.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed log2-bucketed latency histogram. Bucket {@code i} counts durations in
+ * (2^(i-1), 2^i] microseconds, from 1us up to about 16.8s; slower requests
+ * land in an overflow bucket. Recording is an index computation and one
+ * atomic increment, with no allocation.
+ */
+public class LatencyHistogram {
+
+    /** Buckets for <=1us, <=2us, ... <=2^24us (~16.8s). */
+    static final int BUCKETS = 25;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1_000;
+        int index = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        counts.incrementAndGet(Math.min(index, BUCKETS));
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Upper bound of bucket {@code i} in seconds, as a plain decimal string.
+     */
+    static String upperBoundSeconds(int i) {
+        return BigDecimal.valueOf(1L << i, 6).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Non-cumulative count of bucket {@code i}; {@code BUCKETS} is the overflow bucket.
+     */
+    long count(int i) {
+        return counts.get(i);
+    }
+
+    double sumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,129 @@
+package com.minepanel.bridge.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Plugin-wide metrics: per-route HTTP request metrics plus gauges and
+ * counters sampled from other components when scraped. Rendered in the
+ * Prometheus text exposition format.
+ */
+public class Metrics {
+
+    private static final String PREFIX = "minepanel_";
+
+    private record Sampled(String name, String help, String type, DoubleSupplier value) {}
+
+    private record SampledFamily(String name, String help, String type, String label,
+                                 Supplier<Map<String, Double>> values) {}
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final List<Sampled> sampled = new ArrayList<>();
+    private final List<SampledFamily> families = new ArrayList<>();
+
+    /**
+     * Metrics for a route, created on first use.
+     */
+    public RouteMetrics route(String name) {
+        return routes.computeIfAbsent(name, RouteMetrics::new);
+    }
+
+    /**
+     * Register a value that can go up and down, read on every scrape.
+     */
+    public synchronized void gauge(String name, String help, DoubleSupplier value) {
+        sampled.add(new Sampled(PREFIX + name, help, "gauge", value));
+    }
+
+    /**
+     * Register a monotonically increasing total kept elsewhere, read on every scrape.
+     */
+    public synchronized void counter(String name, String help, DoubleSupplier value) {
+        sampled.add(new Sampled(PREFIX + name, help, "counter", value));
+    }
+
+    /**
+     * Register a family of counters keyed by one label, read on every scrape.
+     */
+    public synchronized void labeledCounter(String name, String help, String label,
+                                            Supplier<Map<String, Double>> values) {
+        families.add(new SampledFamily(PREFIX + name, help, "counter", label, values));
+    }
+
+    public void writePrometheus(Writer out) throws IOException {
+        Map<String, RouteMetrics> sorted = new TreeMap<>(routes);
+
+        header(out, "http_requests_total", "API requests by route and response status.", "counter");
+        for (RouteMetrics route : sorted.values()) {
+            for (Map.Entry<Integer, LongAdder> e : new TreeMap<>(route.statuses()).entrySet()) {
+                out.write(PREFIX + "http_requests_total{route=\"" + route.getRoute()
+                        + "\",status=\"" + e.getKey() + "\"} " + e.getValue().sum() + "\n");
+            }
+        }
+
+        header(out, "http_request_duration_seconds", "API request latency by route.", "histogram");
+        for (RouteMetrics route : sorted.values()) {
+            LatencyHistogram latency = route.latency();
+            String labels = "route=\"" + route.getRoute() + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                cumulative += latency.count(i);
+                out.write(PREFIX + "http_request_duration_seconds_bucket{" + labels + ",le=\""
+                        + LatencyHistogram.upperBoundSeconds(i) + "\"} " + cumulative + "\n");
+            }
+            cumulative += latency.count(LatencyHistogram.BUCKETS);
+            out.write(PREFIX + "http_request_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} " + cumulative + "\n");
+            out.write(PREFIX + "http_request_duration_seconds_sum{" + labels + "} " + latency.sumSeconds() + "\n");
+            out.write(PREFIX + "http_request_duration_seconds_count{" + labels + "} " + cumulative + "\n");
+        }
+
+        header(out, "http_response_bytes_total", "Response body bytes written by route.", "counter");
+        for (RouteMetrics route : sorted.values()) {
+            out.write(PREFIX + "http_response_bytes_total{route=\"" + route.getRoute() + "\"} "
+                    + route.bytesWritten() + "\n");
+        }
+
+        header(out, "http_in_flight_requests", "API requests currently being handled by route.", "gauge");
+        for (RouteMetrics route : sorted.values()) {
+            out.write(PREFIX + "http_in_flight_requests{route=\"" + route.getRoute() + "\"} "
+                    + route.inFlight() + "\n");
+        }
+
+        List<Sampled> snapshot;
+        List<SampledFamily> familySnapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(sampled);
+            familySnapshot = new ArrayList<>(families);
+        }
+        for (Sampled metric : snapshot) {
+            out.write("# HELP " + metric.name() + " " + metric.help() + "\n");
+            out.write("# TYPE " + metric.name() + " " + metric.type() + "\n");
+            out.write(metric.name() + " " + format(metric.value().getAsDouble()) + "\n");
+        }
+        for (SampledFamily family : familySnapshot) {
+            out.write("# HELP " + family.name() + " " + family.help() + "\n");
+            out.write("# TYPE " + family.name() + " " + family.type() + "\n");
+            for (Map.Entry<String, Double> e : family.values().get().entrySet()) {
+                out.write(family.name() + "{" + family.label() + "=\"" + e.getKey() + "\"} "
+                        + format(e.getValue()) + "\n");
+            }
+        }
+    }
+
+    private static void header(Writer out, String name, String help, String type) throws IOException {
+        out.write("# HELP " + PREFIX + name + " " + help + "\n");
+        out.write("# TYPE " + PREFIX + name + " " + type + "\n");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
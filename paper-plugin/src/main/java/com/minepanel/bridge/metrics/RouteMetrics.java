@@ -0,0 +1,61 @@
+package com.minepanel.bridge.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters for one API route.
+ */
+public class RouteMetrics {
+
+    private final String route;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    RouteMetrics(String route) {
+        this.route = route;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Record a finished request.
+     *
+     * @param status the response status, or -1 if no response was sent
+     */
+    public void end(int status, long nanos) {
+        inFlight.decrementAndGet();
+        latency.record(nanos);
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    public void addBytes(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+
+    Map<Integer, LongAdder> statuses() {
+        return statuses;
+    }
+
+    long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,224 @@
+package com.minepanel.bridge.playerdata;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal reader for uncompressed NBT, enough to pull the fields the panel
+ * shows out of a playerdata file.
+ *
+ * Only the requested top-level keys are materialized; everything else (recipe
+ * book, brain memories, plugin data) is skipped in place without allocating.
+ * Every compound remembers the byte range of its payload so item compounds
+ * can be handed to Paper as raw NBT without re-encoding.
+ */
+final class NbtReader {
+
+    static final byte TAG_END = 0;
+    static final byte TAG_BYTE = 1;
+    static final byte TAG_SHORT = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_FLOAT = 5;
+    static final byte TAG_DOUBLE = 6;
+    static final byte TAG_BYTE_ARRAY = 7;
+    static final byte TAG_STRING = 8;
+    static final byte TAG_LIST = 9;
+    static final byte TAG_COMPOUND = 10;
+    static final byte TAG_INT_ARRAY = 11;
+    static final byte TAG_LONG_ARRAY = 12;
+
+    /** Same nesting limit as vanilla. */
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * A parsed compound. {@code start}/{@code end} delimit its payload in the
+     * source buffer, including the trailing TAG_End.
+     */
+    record Compound(Map<String, Object> values, int start, int end) {
+
+        int getInt(String name, int fallback) {
+            return values.get(name) instanceof Number n ? n.intValue() : fallback;
+        }
+
+        float getFloat(String name, float fallback) {
+            return values.get(name) instanceof Number n ? n.floatValue() : fallback;
+        }
+
+        double getDouble(String name, double fallback) {
+            return values.get(name) instanceof Number n ? n.doubleValue() : fallback;
+        }
+
+        String getString(String name) {
+            return values.get(name) instanceof String s ? s : null;
+        }
+
+        Compound getCompound(String name) {
+            return values.get(name) instanceof Compound c ? c : null;
+        }
+
+        List<?> getList(String name) {
+            return values.get(name) instanceof List<?> l ? l : List.of();
+        }
+    }
+
+    private final byte[] data;
+    private final ByteBuffer buf;
+    private int depth;
+
+    NbtReader(byte[] data) {
+        this.data = data;
+        this.buf = ByteBuffer.wrap(data); // NBT is big-endian, the ByteBuffer default
+    }
+
+    /**
+     * Read the root compound, keeping only the given top-level keys.
+     */
+    Compound readRoot(Set<String> keep) throws IOException {
+        try {
+            if (buf.get() != TAG_COMPOUND) {
+                throw new IOException("Root tag is not a compound");
+            }
+            skipString(); // root name
+            int start = buf.position();
+            Map<String, Object> values = new HashMap<>();
+            byte type;
+            while ((type = buf.get()) != TAG_END) {
+                String name = readString();
+                if (keep.contains(name)) {
+                    values.put(name, readPayload(type));
+                } else {
+                    skipPayload(type);
+                }
+            }
+            return new Compound(values, start, buf.position());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated NBT data", e);
+        }
+    }
+
+    private Object readPayload(byte type) throws IOException {
+        return switch (type) {
+            case TAG_BYTE -> buf.get();
+            case TAG_SHORT -> buf.getShort();
+            case TAG_INT -> buf.getInt();
+            case TAG_LONG -> buf.getLong();
+            case TAG_FLOAT -> buf.getFloat();
+            case TAG_DOUBLE -> buf.getDouble();
+            case TAG_STRING -> readString();
+            case TAG_LIST -> readList();
+            case TAG_COMPOUND -> readCompound();
+            case TAG_BYTE_ARRAY, TAG_INT_ARRAY, TAG_LONG_ARRAY -> {
+                // Nothing the panel shows is stored as an array
+                skipPayload(type);
+                yield null;
+            }
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        };
+    }
+
+    private List<Object> readList() throws IOException {
+        enter();
+        byte elementType = buf.get();
+        int length = checkLength(buf.getInt());
+        List<Object> list = new ArrayList<>(Math.min(length, 64));
+        for (int i = 0; i < length; i++) {
+            list.add(readPayload(elementType));
+        }
+        depth--;
+        return list;
+    }
+
+    private Compound readCompound() throws IOException {
+        enter();
+        int start = buf.position();
+        Map<String, Object> values = new HashMap<>();
+        byte type;
+        while ((type = buf.get()) != TAG_END) {
+            values.put(readString(), readPayload(type));
+        }
+        depth--;
+        return new Compound(values, start, buf.position());
+    }
+
+    private void skipPayload(byte type) throws IOException {
+        switch (type) {
+            case TAG_BYTE -> skip(1);
+            case TAG_SHORT -> skip(2);
+            case TAG_INT, TAG_FLOAT -> skip(4);
+            case TAG_LONG, TAG_DOUBLE -> skip(8);
+            case TAG_BYTE_ARRAY -> skip(checkLength(buf.getInt()));
+            case TAG_INT_ARRAY -> skip(4L * checkLength(buf.getInt()));
+            case TAG_LONG_ARRAY -> skip(8L * checkLength(buf.getInt()));
+            case TAG_STRING -> skipString();
+            case TAG_LIST -> {
+                enter();
+                byte elementType = buf.get();
+                int length = checkLength(buf.getInt());
+                for (int i = 0; i < length; i++) {
+                    skipPayload(elementType);
+                }
+                depth--;
+            }
+            case TAG_COMPOUND -> {
+                enter();
+                byte child;
+                while ((child = buf.get()) != TAG_END) {
+                    skipString();
+                    skipPayload(child);
+                }
+                depth--;
+            }
+            default -> throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    /**
+     * NBT strings are length-prefixed modified UTF-8. Nearly all of them are
+     * ASCII, which is decoded directly from the buffer.
+     */
+    private String readString() throws IOException {
+        int length = buf.getShort() & 0xFFFF;
+        int start = buf.position();
+        skip(length);
+        for (int i = start; i < start + length; i++) {
+            if (data[i] < 0) {
+                return new DataInputStream(new ByteArrayInputStream(data, start - 2, length + 2)).readUTF();
+            }
+        }
+        return new String(data, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private void skipString() {
+        skip(buf.getShort() & 0xFFFF);
+    }
+
+    private void skip(long bytes) {
+        if (bytes > buf.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buf.position(buf.position() + (int) bytes);
+    }
+
+    private int checkLength(int length) throws IOException {
+        if (length < 0 || length > buf.remaining()) {
+            throw new IOException("Invalid NBT length " + length);
+        }
+        return length;
+    }
+
+    private void enter() throws IOException {
+        if (++depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+    }
+}
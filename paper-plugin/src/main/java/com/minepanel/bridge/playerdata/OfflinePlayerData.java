@@ -0,0 +1,43 @@
+package com.minepanel.bridge.playerdata;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A player's state as last saved to {@code playerdata/<uuid>.dat}.
+ *
+ * {@code lastKnownName} is the name the server recorded at the last save, or
+ * null if the file has none.
+ *
+ * {@code inventory} uses the same slot layout as the inventory tracker:
+ * 0-35 contents, 36-39 boots..helmet, 40 offhand. Empty slots are null.
+ */
+public record OfflinePlayerData(
+        UUID uuid,
+        String lastKnownName,
+        long lastModified,
+        String dimension,
+        double x,
+        double y,
+        double z,
+        float yaw,
+        float pitch,
+        double health,
+        double maxHealth,
+        int food,
+        float saturation,
+        int expLevel,
+        float exp,
+        int totalExperience,
+        String gameMode,
+        boolean flying,
+        List<Effect> effects,
+        ItemStack[] inventory,
+        ItemStack[] enderChest
+) {
+
+    /** Saved potion effect; {@code type} is the key without namespace, e.g. "speed". */
+    public record Effect(String type, int amplifier, int duration) {}
+}
@@ -0,0 +1,276 @@
+package com.minepanel.bridge.playerdata;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads saved player state from the main world's {@code playerdata} folder,
+ * for players who are not online. Runs entirely on the calling (HTTP) thread;
+ * the player is never loaded into the server.
+ *
+ * Files are streamed through a gzip decoder and parsed with {@link NbtReader},
+ * skipping every tag the panel does not show. Results are kept in a small LRU
+ * and reused while the file's modification time and size are unchanged; the
+ * server replaces the file atomically on save, so a changed file is always
+ * seen as a whole.
+ */
+public class OfflinePlayerReader {
+
+    /** Upper bound on decompressed file size, to reject corrupt or hostile files. */
+    private static final int MAX_DECOMPRESSED_BYTES = 32 * 1024 * 1024;
+
+    private static final Set<String> FIELDS = Set.of(
+            "DataVersion", "Dimension", "Pos", "Rotation", "Health", "attributes", "Attributes",
+            "foodLevel", "foodSaturationLevel", "XpLevel", "XpP", "XpTotal", "playerGameType",
+            "abilities", "active_effects", "Inventory", "EnderItems", "equipment", "bukkit");
+
+    private static final String[] GAME_MODES = {"SURVIVAL", "CREATIVE", "ADVENTURE", "SPECTATOR"};
+
+    /** equipment compound keys (1.21.5+) mapped to inventory slots 36-40. */
+    private static final String[] EQUIPMENT_KEYS = {"feet", "legs", "chest", "head", "offhand"};
+
+    private record Entry(long lastModified, long size, OfflinePlayerData data) {}
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Logger logger;
+    private final Map<UUID, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public OfflinePlayerReader(File worldFolder, int maxEntries, Logger logger) {
+        this.directory = new File(worldFolder, "playerdata").toPath();
+        this.maxEntries = maxEntries;
+        this.logger = logger;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > OfflinePlayerReader.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The player's saved state, or null if the server has no data file for them.
+     */
+    public OfflinePlayerData read(UUID uuid) throws IOException {
+        Path file = directory.resolve(uuid + ".dat");
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        synchronized (entries) {
+            Entry cached = entries.get(uuid);
+            if (cached != null && cached.lastModified() == lastModified && cached.size() == size) {
+                hits.increment();
+                return cached.data();
+            }
+        }
+
+        misses.increment();
+        OfflinePlayerData data;
+        try {
+            data = parse(uuid, lastModified, readFile(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (maxEntries > 0) {
+            synchronized (entries) {
+                entries.put(uuid, new Entry(lastModified, size, data));
+            }
+        }
+        return data;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static byte[] readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream in = new GZIPInputStream(Channels.newInputStream(channel), 8192)) {
+            byte[] data = in.readNBytes(MAX_DECOMPRESSED_BYTES + 1);
+            if (data.length > MAX_DECOMPRESSED_BYTES) {
+                throw new IOException("Player data file is too large: " + file.getFileName());
+            }
+            return data;
+        }
+    }
+
+    private OfflinePlayerData parse(UUID uuid, long lastModified, byte[] data) throws IOException {
+        NbtReader reader = new NbtReader(data);
+        NbtReader.Compound root = reader.readRoot(FIELDS);
+        int dataVersion = root.getInt("DataVersion", -1);
+
+        List<?> pos = root.getList("Pos");
+        List<?> rotation = root.getList("Rotation");
+        NbtReader.Compound abilities = root.getCompound("abilities");
+        int gameMode = root.getInt("playerGameType", 0);
+
+        List<OfflinePlayerData.Effect> effects = new ArrayList<>();
+        for (Object element : root.getList("active_effects")) {
+            if (element instanceof NbtReader.Compound effect && effect.getString("id") != null) {
+                effects.add(new OfflinePlayerData.Effect(stripNamespace(effect.getString("id")),
+                        effect.getInt("amplifier", 0), effect.getInt("duration", 0)));
+            }
+        }
+
+        int[] failed = new int[1];
+        ItemStack[] inventory = new ItemStack[41];
+        for (Object element : root.getList("Inventory")) {
+            if (!(element instanceof NbtReader.Compound item)) continue;
+            int slot = inventorySlot(item.getInt("Slot", -1));
+            if (slot >= 0) {
+                inventory[slot] = toItem(data, item, dataVersion, failed);
+            }
+        }
+        NbtReader.Compound equipment = root.getCompound("equipment");
+        if (equipment != null) {
+            for (int i = 0; i < EQUIPMENT_KEYS.length; i++) {
+                NbtReader.Compound item = equipment.getCompound(EQUIPMENT_KEYS[i]);
+                if (item != null) {
+                    inventory[36 + i] = toItem(data, item, dataVersion, failed);
+                }
+            }
+        }
+
+        ItemStack[] enderChest = new ItemStack[27];
+        for (Object element : root.getList("EnderItems")) {
+            if (!(element instanceof NbtReader.Compound item)) continue;
+            int slot = item.getInt("Slot", -1);
+            if (slot >= 0 && slot < enderChest.length) {
+                enderChest[slot] = toItem(data, item, dataVersion, failed);
+            }
+        }
+
+        if (failed[0] > 0) {
+            logger.warning("Could not read " + failed[0] + " item(s) from player data of " + uuid);
+        }
+
+        NbtReader.Compound bukkit = root.getCompound("bukkit");
+
+        return new OfflinePlayerData(
+                uuid,
+                bukkit != null ? bukkit.getString("lastKnownName") : null,
+                lastModified,
+                root.getString("Dimension"),
+                element(pos, 0), element(pos, 1), element(pos, 2),
+                (float) element(rotation, 0), (float) element(rotation, 1),
+                root.getFloat("Health", 20.0f),
+                maxHealth(root),
+                root.getInt("foodLevel", 20),
+                root.getFloat("foodSaturationLevel", 5.0f),
+                root.getInt("XpLevel", 0),
+                root.getFloat("XpP", 0.0f),
+                root.getInt("XpTotal", 0),
+                gameMode >= 0 && gameMode < GAME_MODES.length ? GAME_MODES[gameMode] : GAME_MODES[0],
+                abilities != null && abilities.getInt("flying", 0) != 0,
+                List.copyOf(effects),
+                inventory,
+                enderChest);
+    }
+
+    /**
+     * Saved inventory slot to tracker layout: 100-103 are armor, -106 the offhand.
+     */
+    private static int inventorySlot(int saved) {
+        if (saved >= 0 && saved < 36) return saved;
+        if (saved >= 100 && saved <= 103) return 36 + saved - 100;
+        if (saved == -106) return 40;
+        return -1;
+    }
+
+    /**
+     * Hand an item compound to Paper in its {@code serializeAsBytes} format:
+     * the raw compound payload plus a DataVersion tag, gzipped, so items saved
+     * by an older server version are upgraded the same way the server would.
+     */
+    private static ItemStack toItem(byte[] data, NbtReader.Compound item, int dataVersion, int[] failed) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(item.end() - item.start() + 32);
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(NbtReader.TAG_COMPOUND);
+                out.write(0); // empty root name
+                out.write(0);
+                out.write(data, item.start(), item.end() - item.start() - 1); // without TAG_End
+                if (dataVersion >= 0) {
+                    out.write(NbtReader.TAG_INT);
+                    out.write(0);
+                    out.write(11);
+                    out.write("DataVersion".getBytes(StandardCharsets.US_ASCII));
+                    out.write(dataVersion >>> 24);
+                    out.write(dataVersion >>> 16);
+                    out.write(dataVersion >>> 8);
+                    out.write(dataVersion);
+                }
+                out.write(NbtReader.TAG_END);
+            }
+            return ItemStack.deserializeBytes(bytes.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            failed[0]++;
+            return null;
+        }
+    }
+
+    /**
+     * Base max health from the saved attributes, 20 if not present. Handles
+     * both the current ("attributes", "id", "base") and the pre-1.21
+     * ("Attributes", "Name", "Base") layouts.
+     */
+    private static double maxHealth(NbtReader.Compound root) {
+        List<?> attributes = root.getList("attributes");
+        boolean legacy = attributes.isEmpty();
+        if (legacy) {
+            attributes = root.getList("Attributes");
+        }
+        for (Object element : attributes) {
+            if (element instanceof NbtReader.Compound attribute) {
+                String id = attribute.getString(legacy ? "Name" : "id");
+                if (id != null && id.endsWith("max_health")) {
+                    return attribute.getDouble(legacy ? "Base" : "base", 20.0);
+                }
+            }
+        }
+        return 20.0;
+    }
+
+    private static double element(List<?> list, int index) {
+        return index < list.size() && list.get(index) instanceof Number n ? n.doubleValue() : 0.0;
+    }
+
+    private static String stripNamespace(String key) {
+        int colon = key.indexOf(':');
+        return colon >= 0 ? key.substring(colon + 1) : key;
+    }
+}
@@ -0,0 +1,74 @@
+package com.minepanel.bridge.scheduler;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+
+/**
+ * Queue of main-thread work drained once per tick under a fixed time budget.
+ * Large batches (mass commands, bulk whitelist changes) are spread across as
+ * many ticks as needed instead of stalling a single tick. At least one task
+ * runs per tick so a single slow task cannot starve the queue.
+ */
+public class BudgetedTaskQueue {
+
+    private final MinePanelBridge plugin;
+    private final long budgetNanos;
+    private final ConcurrentLinkedQueue<FutureTask<?>> queue = new ConcurrentLinkedQueue<>();
+    private BukkitTask task;
+
+    public BudgetedTaskQueue(MinePanelBridge plugin, long budgetMicros) {
+        this.plugin = plugin;
+        this.budgetNanos = Math.max(1, budgetMicros) * 1_000L;
+    }
+
+    public void start() {
+        task = plugin.getMainThreadScheduler().runTaskTimer("queue", this::drain, 1L, 1L);
+    }
+
+    /**
+     * Stop draining and cancel everything still queued.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        FutureTask<?> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.cancel(false);
+        }
+    }
+
+    /**
+     * Queue a task for the main thread. Cancelling the returned future before
+     * the task starts removes it from the tick budget.
+     */
+    public <T> Future<T> submit(Callable<T> callable) {
+        FutureTask<T> future = new FutureTask<>(callable);
+        queue.offer(future);
+        return future;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + budgetNanos;
+        do {
+            FutureTask<?> next = queue.poll();
+            if (next == null) return;
+            try {
+                next.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Queued main-thread task failed", t);
+            }
+        } while (System.nanoTime() < deadline);
+    }
+}
@@ -0,0 +1,163 @@
+package com.minepanel.bridge.scheduler;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The single entry point for the bridge's main-thread work. Every task
+ * scheduled through here is timed, so the tick time the panel costs the
+ * server can be read from /api/health and /api/metrics.
+ *
+ * Costs are kept per task name (count, total, worst single run) and per tick
+ * in a ring covering the last {@link #WINDOW_TICKS} ticks. The ring is only
+ * written on the main thread; a once-per-second task summarises it into an
+ * immutable {@link Stats} that other threads read.
+ */
+public class MainThreadScheduler {
+
+    /** Rolling window for per-tick totals: one minute at 20 TPS. */
+    public static final int WINDOW_TICKS = 1200;
+
+    /**
+     * Summary of bridge main-thread cost over the rolling window.
+     *
+     * @param version         incremented whenever the figures change, for response caching
+     * @param lastSecondNanos total over the last 20 ticks
+     * @param avgTickNanos    average per tick over the window (idle ticks count as 0)
+     * @param worstTickNanos  the most expensive tick in the window
+     */
+    public record Stats(long version, long lastSecondNanos, long avgTickNanos, long worstTickNanos) {
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0);
+    }
+
+    /**
+     * Lifetime cost of one kind of task.
+     */
+    public static final class TaskStats {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            runs.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getRuns() {
+            return runs.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    private final MinePanelBridge plugin;
+    private final Map<String, TaskStats> tasks = new ConcurrentHashMap<>();
+    private final long[] tickNanos = new long[WINDOW_TICKS];
+    private final int[] tickIds = new int[WINDOW_TICKS];
+    private volatile Stats stats = Stats.EMPTY;
+    private BukkitTask summaryTask;
+
+    public MainThreadScheduler(MinePanelBridge plugin) {
+        this.plugin = plugin;
+        Arrays.fill(tickIds, -1);
+    }
+
+    public void start() {
+        // Bookkeeping only; deliberately not measured
+        summaryTask = Bukkit.getScheduler().runTaskTimer(plugin, this::summarise, 20L, 20L);
+    }
+
+    public void stop() {
+        if (summaryTask != null) {
+            summaryTask.cancel();
+            summaryTask = null;
+        }
+    }
+
+    /**
+     * Run a task once on the next tick.
+     */
+    public BukkitTask runTask(String name, Runnable task) {
+        return Bukkit.getScheduler().runTask(plugin, timed(name, task));
+    }
+
+    /**
+     * Run a task repeatedly on the main thread.
+     */
+    public BukkitTask runTaskTimer(String name, Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getScheduler().runTaskTimer(plugin, timed(name, task), delayTicks, periodTicks);
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Per-task-name costs, sorted by name.
+     */
+    public Map<String, TaskStats> getTaskStats() {
+        return new TreeMap<>(tasks);
+    }
+
+    private Runnable timed(String name, Runnable task) {
+        TaskStats taskStats = tasks.computeIfAbsent(name, n -> new TaskStats());
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                taskStats.record(elapsed);
+                addToTick(elapsed);
+            }
+        };
+    }
+
+    private void addToTick(long nanos) {
+        int tick = Bukkit.getCurrentTick();
+        int slot = Math.floorMod(tick, WINDOW_TICKS);
+        if (tickIds[slot] != tick) {
+            tickIds[slot] = tick;
+            tickNanos[slot] = 0;
+        }
+        tickNanos[slot] += nanos;
+    }
+
+    private void summarise() {
+        int now = Bukkit.getCurrentTick();
+        long total = 0;
+        long worst = 0;
+        long lastSecond = 0;
+        for (int slot = 0; slot < WINDOW_TICKS; slot++) {
+            int age = now - tickIds[slot];
+            if (tickIds[slot] < 0 || age < 0 || age >= WINDOW_TICKS) continue;
+            long nanos = tickNanos[slot];
+            total += nanos;
+            worst = Math.max(worst, nanos);
+            if (age < 20) {
+                lastSecond += nanos;
+            }
+        }
+        long avg = total / WINDOW_TICKS;
+        Stats previous = stats;
+        if (lastSecond != previous.lastSecondNanos() || avg != previous.avgTickNanos()
+                || worst != previous.worstTickNanos()) {
+            stats = new Stats(previous.version() + 1, lastSecond, avg, worst);
+        }
+    }
+}
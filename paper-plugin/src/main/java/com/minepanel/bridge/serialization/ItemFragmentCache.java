@@ -0,0 +1,102 @@
+package com.minepanel.bridge.serialization;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU of serialized item JSON, keyed by the stack itself.
+ * Inventories are mostly made of identical stacks (full stacks of blocks,
+ * identical tools), so most slots are answered from here without rebuilding
+ * lore and enchantment output.
+ *
+ * Lookups never clone the item meta. The key hashes material, amount and
+ * enchantments, which server stacks read straight from their components, and
+ * a matching key is confirmed with {@link ItemStack#isSimilar}, which compares
+ * components in place. Only a miss pays for copies: the stack, so the stored
+ * key does not follow later inventory changes, and its meta, to render it.
+ */
+public class ItemFragmentCache {
+
+    private static final class Key {
+        private final ItemStack stack;
+        private final int hash;
+
+        Key(ItemStack stack) {
+            this.stack = stack;
+            int h = 31 * stack.getType().hashCode() + stack.getAmount();
+            this.hash = 31 * h + (stack.hasItemMeta() ? stack.getEnchantments().hashCode() : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.hash == hash
+                    && other.stack.getAmount() == stack.getAmount() && other.stack.isSimilar(stack);
+        }
+    }
+
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Map<Key, String> entries;
+
+    public ItemFragmentCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > ItemFragmentCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The serialized object for a non-empty stack, without slot fields:
+     * {@code {"empty":false,"material":...}}.
+     */
+    String get(ItemStack stack) {
+        Key key = new Key(stack);
+
+        synchronized (entries) {
+            String cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        String fragment = ItemSerializer.render(stack, stack.getItemMeta());
+        Key stored = new Key(stack.clone());
+        synchronized (entries) {
+            entries.put(stored, fragment);
+        }
+        return fragment;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
@@ -1,12 +1,16 @@
 package com.minepanel.bridge.serialization;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,66 +18,131 @@ import java.util.Map;
  */
 public class ItemSerializer {
 
+    private static volatile ItemFragmentCache cache;
+
+    /**
+     * Enable the serialized-item cache with the given capacity, or disable it
+     * when {@code maxEntries} is 0.
+     */
+    public static void configureCache(int maxEntries) {
+        cache = maxEntries > 0 ? new ItemFragmentCache(maxEntries) : null;
+    }
+
+    /**
+     * The active item cache, or null if caching is disabled.
+     */
+    public static ItemFragmentCache getCache() {
+        return cache;
+    }
+
     /**
-     * Serialize an ItemStack to a JSON object.
+     * Write an ItemStack as a JSON object.
      *
-     * @param stack The ItemStack (can be null)
-     * @param slot  The slot index (-1 if not applicable)
-     * @return JSON representation of the item
+     * @param out      The JSON writer
+     * @param stack    The ItemStack (can be null)
+     * @param slot     The slot index (-1 if not applicable)
+     * @param slotName The slot name, e.g. "helmet" (null if not applicable)
      */
-    public static JsonObject serialize(ItemStack stack, int slot) {
-        JsonObject json = new JsonObject();
+    public static void write(JsonWriter out, ItemStack stack, int slot, String slotName) throws IOException {
+        ItemFragmentCache itemCache = cache;
+        if (itemCache != null && stack != null && !stack.getType().isAir()) {
+            out.jsonValue(withSlot(itemCache.get(stack), slot, slotName));
+            return;
+        }
+
+        out.beginObject();
 
         if (slot >= 0) {
-            json.addProperty("slot", slot);
+            out.name("slot").value(slot);
         }
 
         if (stack == null || stack.getType().isAir()) {
-            json.addProperty("empty", true);
-            return json;
+            out.name("empty").value(true);
+        } else {
+            writeItem(out, stack, stack.getItemMeta());
         }
 
-        json.addProperty("empty", false);
-        json.addProperty("material", stack.getType().getKey().getKey());
-        json.addProperty("amount", stack.getAmount());
+        if (slotName != null) {
+            out.name("slotName").value(slotName);
+        }
 
-        ItemMeta meta = stack.getItemMeta();
-        if (meta != null) {
-            // Display name
-            if (meta.hasDisplayName()) {
-                json.addProperty("displayName", meta.getDisplayName());
-            }
+        out.endObject();
+    }
 
-            // Lore
-            if (meta.hasLore() && meta.getLore() != null) {
-                JsonArray lore = new JsonArray();
-                for (String line : meta.getLore()) {
-                    lore.add(line);
-                }
-                json.add("lore", lore);
-            }
+    /**
+     * Serialize a non-empty stack as a standalone object without slot fields.
+     */
+    static String render(ItemStack stack, ItemMeta meta) {
+        StringWriter buffer = new StringWriter(128);
+        try (JsonWriter out = new JsonWriter(buffer)) {
+            out.beginObject();
+            writeItem(out, stack, meta);
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
 
-            // Enchantments
-            if (!meta.getEnchants().isEmpty()) {
-                JsonObject enchants = new JsonObject();
-                for (Map.Entry<Enchantment, Integer> entry : meta.getEnchants().entrySet()) {
-                    enchants.addProperty(entry.getKey().getKey().getKey(), entry.getValue());
-                }
-                json.add("enchantments", enchants);
-            }
+    /**
+     * Add the slot fields to a cached fragment, keeping the field order of the
+     * uncached output (slot first, slotName last).
+     */
+    private static String withSlot(String fragment, int slot, String slotName) {
+        if (slot < 0 && slotName == null) return fragment;
+
+        StringBuilder sb = new StringBuilder(fragment.length() + 32).append('{');
+        if (slot >= 0) {
+            sb.append("\"slot\":").append(slot).append(',');
+        }
+        sb.append(fragment, 1, fragment.length() - 1);
+        if (slotName != null) {
+            sb.append(",\"slotName\":").append(new JsonPrimitive(slotName));
+        }
+        return sb.append('}').toString();
+    }
 
-            // Durability / Damage
-            if (meta instanceof Damageable damageable) {
-                json.addProperty("damage", damageable.getDamage());
-                json.addProperty("maxDurability", stack.getType().getMaxDurability());
+    private static void writeItem(JsonWriter out, ItemStack stack, ItemMeta meta) throws IOException {
+        out.name("empty").value(false);
+        out.name("material").value(stack.getType().getKey().getKey());
+        out.name("amount").value(stack.getAmount());
+
+        if (meta == null) return;
+
+        // Display name
+        if (meta.hasDisplayName()) {
+            out.name("displayName").value(meta.getDisplayName());
+        }
+
+        // Lore
+        List<String> lore = meta.hasLore() ? meta.getLore() : null;
+        if (lore != null) {
+            out.name("lore").beginArray();
+            for (String line : lore) {
+                out.value(line);
             }
+            out.endArray();
+        }
 
-            // Custom model data
-            if (meta.hasCustomModelData()) {
-                json.addProperty("customModelData", meta.getCustomModelData());
+        // Enchantments
+        Map<Enchantment, Integer> enchants = meta.getEnchants();
+        if (!enchants.isEmpty()) {
+            out.name("enchantments").beginObject();
+            for (Map.Entry<Enchantment, Integer> entry : enchants.entrySet()) {
+                out.name(entry.getKey().getKey().getKey()).value(entry.getValue());
             }
+            out.endObject();
+        }
+
+        // Durability / Damage
+        if (meta instanceof Damageable damageable) {
+            out.name("damage").value(damageable.getDamage());
+            out.name("maxDurability").value(stack.getType().getMaxDurability());
         }
 
-        return json;
+        // Custom model data
+        if (meta.hasCustomModelData()) {
+            out.name("customModelData").value(meta.getCustomModelData());
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.minepanel.bridge.snapshot;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of the state of a single online player, captured on the main thread.
+ */
+public record PlayerSnapshot(
+        UUID uuid,
+        String name,
+        String world,
+        double x,
+        double y,
+        double z,
+        float yaw,
+        float pitch,
+        double health,
+        int food,
+        int expLevel,
+        String gamemode,
+        int ping,
+        boolean op
+) {
+
+    /**
+     * Capture a player's current state. Must be called on the main thread.
+     */
+    public static PlayerSnapshot capture(Player player) {
+        Location loc = player.getLocation();
+        return new PlayerSnapshot(
+                player.getUniqueId(),
+                player.getName(),
+                loc.getWorld().getName(),
+                loc.getX(),
+                loc.getY(),
+                loc.getZ(),
+                loc.getYaw(),
+                loc.getPitch(),
+                player.getHealth(),
+                player.getFoodLevel(),
+                player.getLevel(),
+                player.getGameMode().name(),
+                player.getPing(),
+                player.isOp()
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.minepanel.bridge.snapshot;
+
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the server and its online players.
+ * A new instance is published whenever the captured state changes; readers never
+ * see partial updates. {@code capturedAt} is when this state was first seen and
+ * {@code tps} is rounded to two decimals.
+ */
+public record ServerSnapshot(
+        long version,
+        long capturedAt,
+        String serverName,
+        String serverVersion,
+        String motd,
+        int maxPlayers,
+        double tps,
+        List<PlayerSnapshot> players
+) {
+
+    public static final ServerSnapshot EMPTY =
+            new ServerSnapshot(0, 0, "", "", "", 0, 0.0, List.of());
+
+    public int onlinePlayers() {
+        return players.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.minepanel.bridge.snapshot;
+
+import com.minepanel.bridge.MinePanelBridge;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Captures a {@link ServerSnapshot} on the main thread every N ticks and publishes it
+ * through a volatile reference, so HTTP handlers can read server state without touching
+ * Bukkit objects off the main thread.
+ *
+ * A new snapshot (and version) is only published when the captured state differs
+ * from the current one, so an idle server keeps the same version and cached
+ * responses stay valid.
+ */
+public class SnapshotService {
+
+    private final MinePanelBridge plugin;
+    private final int intervalTicks;
+
+    private volatile ServerSnapshot current = ServerSnapshot.EMPTY;
+    private long version;
+    private BukkitTask task;
+
+    public SnapshotService(MinePanelBridge plugin, int intervalTicks) {
+        this.plugin = plugin;
+        this.intervalTicks = Math.max(1, intervalTicks);
+    }
+
+    /**
+     * Take an initial snapshot and schedule the repeating capture task.
+     * Must be called on the main thread.
+     */
+    public void start() {
+        capture();
+        task = plugin.getMainThreadScheduler().runTaskTimer("snapshot", this::capture, intervalTicks, intervalTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * The latest published snapshot. Safe to call from any thread.
+     */
+    public ServerSnapshot getCurrent() {
+        return current;
+    }
+
+    private void capture() {
+        Server server = Bukkit.getServer();
+        Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+
+        List<PlayerSnapshot> players = new ArrayList<>(online.size());
+        for (Player player : online) {
+            players.add(PlayerSnapshot.capture(player));
+        }
+
+        // Rounded as it is reported, so jitter below 0.01 is not a change
+        double tps = Math.round(server.getTPS()[0] * 100.0) / 100.0;
+        ServerSnapshot previous = current;
+        if (previous.version() > 0
+                && previous.tps() == tps
+                && previous.maxPlayers() == Bukkit.getMaxPlayers()
+                && previous.serverName().equals(server.getName())
+                && previous.serverVersion().equals(server.getVersion())
+                && previous.motd().equals(server.getMotd())
+                && previous.players().equals(players)) {
+            return;
+        }
+
+        current = new ServerSnapshot(
+                ++version,
+                System.currentTimeMillis(),
+                server.getName(),
+                server.getVersion(),
+                server.getMotd(),
+                Bukkit.getMaxPlayers(),
+                tps,
+                List.copyOf(players)
+        );
+    }
+}
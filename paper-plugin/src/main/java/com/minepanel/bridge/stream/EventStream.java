@@ -0,0 +1,106 @@
+package com.minepanel.bridge.stream;
+
+import com.google.gson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out hub for Server-Sent Events. Publishers (Bukkit listeners on the main
+ * thread) encode each event once and hand it to every connected client's
+ * bounded queue without blocking; each client is drained by its own HTTP thread.
+ */
+public class EventStream {
+
+    private static final int CLIENT_QUEUE_SIZE = 256;
+
+    private final int maxClients;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    public EventStream(int maxClients) {
+        this.maxClients = Math.max(1, maxClients);
+    }
+
+    /**
+     * A connected SSE client. A client that falls behind by more than
+     * {@value #CLIENT_QUEUE_SIZE} events is closed rather than slowing publishers.
+     */
+    public static class Client {
+
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(CLIENT_QUEUE_SIZE);
+        private volatile boolean closed;
+
+        /**
+         * Wait up to {@code timeoutMs} for the next encoded event.
+         *
+         * @return the event bytes, or null on timeout
+         */
+        public byte[] next(long timeoutMs) throws InterruptedException {
+            return queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private void offer(byte[] event) {
+            if (!queue.offer(event)) {
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Register a new client whose first event is {@code initialEvent}, queued
+     * before the client can receive any published update.
+     *
+     * @return the client, or null if the connection limit is reached
+     */
+    public synchronized Client connect(String initialEvent, JsonObject initialData) {
+        if (clients.size() >= maxClients) {
+            return null;
+        }
+        Client client = new Client();
+        client.offer(encode(initialEvent, initialData));
+        clients.add(client);
+        return client;
+    }
+
+    public void disconnect(Client client) {
+        client.closed = true;
+        clients.remove(client);
+    }
+
+    public boolean hasClients() {
+        return !clients.isEmpty();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Encode an event once and queue it for every connected client. Never blocks.
+     */
+    public void publish(String event, JsonObject data) {
+        if (clients.isEmpty()) return;
+        byte[] encoded = encode(event, data);
+        for (Client client : clients) {
+            client.offer(encoded);
+        }
+    }
+
+    public void closeAll() {
+        for (Client client : clients) {
+            disconnect(client);
+        }
+    }
+
+    private static byte[] encode(String event, JsonObject data) {
+        return ("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
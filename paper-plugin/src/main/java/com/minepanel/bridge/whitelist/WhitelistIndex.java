@@ -0,0 +1,317 @@
+package com.minepanel.bridge.whitelist;
+
+import com.minepanel.bridge.MinePanelBridge;
+import com.minepanel.bridge.http.ListQuery;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The plugin's own name/UUID index of the server whitelist, so list and search
+ * requests never resolve {@link OfflinePlayer} names (which can hit the user
+ * cache or disk for cold profiles).
+ *
+ * Entries are sorted by {@link ListQuery#sortKey}, so a name-prefix lookup or a
+ * page after a cursor is a skip-list range view: O(log n) to locate, then
+ * linear in the entries read. Whitelist changes are applied as they happen
+ * (see WhitelistChangeListener), and a periodic async reconcile against
+ * {@link Bukkit#getWhitelistedPlayers()} catches anything missed, such as
+ * edits to whitelist.json followed by /whitelist reload.
+ *
+ * The main thread never waits on the index: change events are queued and
+ * applied only if the lock is free, otherwise by whichever thread holds it.
+ * Reconcile reads the whitelist and its names without the lock and takes it
+ * only to apply the difference.
+ */
+public class WhitelistIndex {
+
+    private static final int MAX_PREFIX_COUNTS = 32;
+    private static final long READY_TIMEOUT_SECONDS = 10;
+
+    /** A whitelist event waiting to be applied; name is null for removals. */
+    private record Change(String name, UUID uuid, boolean whitelisted) {}
+
+    public record Entry(String name, UUID uuid) {}
+
+    private final MinePanelBridge plugin;
+    private final long reconcileTicks;
+    /** Sort key -> entry. */
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+    /** UUID -> sort key, for removals and renames. */
+    private final Map<UUID, String> keys = new ConcurrentHashMap<>();
+    /** Starts from the clock so versions (and ETags) are not reused across restarts. */
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() << 12);
+    /** Prefix -> number of matching entries, valid while the version is {@link #countsVersion}. */
+    private final Map<String, Integer> prefixCounts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_PREFIX_COUNTS;
+        }
+    };
+    private long countsVersion;
+    /** Guards changes to the maps. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Only one reconcile at a time, so the touched set belongs to it. */
+    private final Object reconcileLock = new Object();
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+    /** UUIDs changed by events since the running reconcile started reading; guarded by lock. */
+    private final Set<UUID> touched = new HashSet<>();
+    private final CountDownLatch readyLatch = new CountDownLatch(1);
+    private volatile boolean ready;
+    private BukkitTask task;
+
+    public WhitelistIndex(MinePanelBridge plugin, long reconcileSeconds) {
+        this.plugin = plugin;
+        this.reconcileTicks = Math.max(1, reconcileSeconds) * 20L;
+    }
+
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::reconcile, 0L, reconcileTicks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Wait (up to {@value #READY_TIMEOUT_SECONDS} seconds) for the first
+     * reconcile so early requests never see an empty whitelist, and apply
+     * any queued changes so a request sees the whitelist as it is now.
+     */
+    public void ensureReady() {
+        if (!ready) {
+            try {
+                readyLatch.await(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!changes.isEmpty()) {
+            lock.lock();
+            try {
+                applyChanges();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Changes whenever an entry is added, removed or renamed.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Number of entries. Read from the UUID map, whose size is a counter,
+     * rather than the skip list, whose size() walks every entry.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Number of entries whose name starts with {@code prefix} (case-insensitive).
+     * Counting a prefix range walks it, so counts are kept per prefix until
+     * the index next changes.
+     */
+    public int count(String prefix) {
+        if (prefix == null || prefix.isEmpty()) return size();
+        String from = prefix.toLowerCase(Locale.ROOT);
+        long current = version.get();
+        synchronized (prefixCounts) {
+            if (countsVersion != current) {
+                prefixCounts.clear();
+                countsVersion = current;
+            }
+            Integer cached = prefixCounts.get(from);
+            if (cached != null) return cached;
+        }
+
+        int count = withPrefix(from).size();
+        synchronized (prefixCounts) {
+            if (countsVersion == current) {
+                prefixCounts.put(from, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * All entries in sort-key order.
+     */
+    public NavigableMap<String, Entry> all() {
+        return entries;
+    }
+
+    /**
+     * Entries whose name starts with {@code prefix} (case-insensitive), in
+     * sort-key order. Returns a live view.
+     */
+    public NavigableMap<String, Entry> withPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) return entries;
+        String from = prefix.toLowerCase(Locale.ROOT);
+        return entries.subMap(from, true, from + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * The entry with exactly this name (case-insensitive), or null.
+     */
+    public Entry find(String name) {
+        String from = name.toLowerCase(Locale.ROOT) + "/";
+        Map.Entry<String, Entry> first = entries.ceilingEntry(from);
+        return first != null && first.getKey().startsWith(from) ? first.getValue() : null;
+    }
+
+    /**
+     * The entry for this UUID, or null if the player is not whitelisted.
+     */
+    public Entry get(UUID uuid) {
+        String key = keys.get(uuid);
+        return key != null ? entries.get(key) : null;
+    }
+
+    /**
+     * Record a whitelisted player. A known UUID under a different name is renamed.
+     * Never blocks; see the class comment.
+     */
+    public void put(String name, UUID uuid) {
+        changes.offer(new Change(name, uuid, true));
+        tryApplyChanges();
+    }
+
+    public void remove(UUID uuid) {
+        changes.offer(new Change(null, uuid, false));
+        tryApplyChanges();
+    }
+
+    /**
+     * Bring the index in line with the server whitelist. Runs off the main
+     * thread; name lookups for the whitelisted players happen here rather than
+     * on request threads, and without the lock, so events keep being applied
+     * meanwhile. Players changed by an event during the read keep the event's
+     * state, which is newer than what was read.
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            lock.lock();
+            try {
+                applyChanges();
+                touched.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            Map<UUID, String> current = new HashMap<>();
+            for (OfflinePlayer player : Bukkit.getWhitelistedPlayers()) {
+                current.put(player.getUniqueId(), player.getName());
+            }
+
+            lock.lock();
+            try {
+                applyChanges();
+                boolean changed = false;
+                for (Map.Entry<UUID, String> e : current.entrySet()) {
+                    if (!touched.contains(e.getKey())) {
+                        changed |= putEntry(e.getValue(), e.getKey());
+                    }
+                }
+                for (UUID uuid : keys.keySet()) {
+                    if (!current.containsKey(uuid) && !touched.contains(uuid)) {
+                        changed |= removeEntry(uuid);
+                    }
+                }
+                touched.clear();
+
+                if (changed) {
+                    version.incrementAndGet();
+                }
+                ready = true;
+            } finally {
+                lock.unlock();
+            }
+            readyLatch.countDown();
+            // Events queued while the lock was held
+            tryApplyChanges();
+        }
+    }
+
+    /**
+     * Apply queued changes if the lock is free. A change queued while another
+     * thread holds the lock is applied by that thread once it releases it.
+     */
+    private void tryApplyChanges() {
+        while (!changes.isEmpty() && lock.tryLock()) {
+            try {
+                applyChanges();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Apply queued changes. Call with the lock held.
+     */
+    private void applyChanges() {
+        boolean changed = false;
+        Change change;
+        while ((change = changes.poll()) != null) {
+            touched.add(change.uuid());
+            changed |= change.whitelisted()
+                    ? putEntry(change.name(), change.uuid())
+                    : removeEntry(change.uuid());
+        }
+        if (changed) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether the index changed
+     */
+    private boolean removeEntry(UUID uuid) {
+        String key = keys.remove(uuid);
+        if (key == null) return false;
+        entries.remove(key);
+        return true;
+    }
+
+    /**
+     * @return whether the index changed
+     */
+    private boolean putEntry(String name, UUID uuid) {
+        String key = ListQuery.sortKey(name, uuid);
+        String previous = keys.put(uuid, key);
+        if (key.equals(previous)) {
+            Entry existing = entries.get(key);
+            if (existing != null && (name == null ? existing.name() == null : name.equals(existing.name()))) {
+                return false;
+            }
+        } else if (previous != null) {
+            entries.remove(previous);
+        }
+        entries.put(key, new Entry(name, uuid));
+        return true;
+    }
+}
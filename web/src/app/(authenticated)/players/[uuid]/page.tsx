@@ -210,7 +210,9 @@ export default function PlayerDetailPage() {
               </div>
               <div className="flex justify-between">
                 <span className="text-muted-foreground">Ping</span>
-                <span className="text-foreground">{player.ping}ms</span>
+                <span className="text-foreground">
+                  {player.online === false ? "Offline" : `${player.ping}ms`}
+                </span>
               </div>
               <div className="flex justify-between">
                 <span className="text-muted-foreground">Flying</span>
@@ -54,6 +54,10 @@ export interface PlayerDetail extends PlayerSummary {
   isSneaking: boolean;
   activePotionEffects: PotionEffect[];
   inventorySummary: Record<string, number>;
+  /** false when served from the player's saved data */
+  online?: boolean;
+  /** Last save of an offline player's data (ms since epoch) */
+  lastSeen?: number;
 }
 
 export interface PotionEffect {